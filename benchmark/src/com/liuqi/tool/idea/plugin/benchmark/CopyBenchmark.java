@@ -0,0 +1,190 @@
+package com.liuqi.tool.idea.plugin.benchmark;
+
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 修改时复制非空属性的基准测试
+ * mapstructCopy调用MapStruct注解处理器为{@link OrderCopyMapper}生成的代码，与mapper.mapstruct.copy为true时生成的updateDto一致；
+ * reflectiveCopy调用lcommon中的LBeanUtils.copyNonNullProperties，类全名通过-Dlcommon.beanUtils指定；
+ * 列表转换分别对比MapStruct生成的列表方法与逐个调用LBeanUtils复制的方式，两者都按源列表大小创建目标列表
+ *
+ * @author LiuQi 2020/6/20-11:00
+ * @version V1.0
+ **/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CopyBenchmark {
+    /**
+     * 指定LBeanUtils全名的系统属性
+     */
+    private static final String BEAN_UTILS_PROPERTY = "lcommon.beanUtils";
+
+    @Param({"10", "1000"})
+    private int listSize;
+
+    private OrderUpdate update;
+    private List<OrderUpdate> updates;
+    private OrderCopyMapper mapper;
+    private MethodHandle copyNonNullProperties;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        update = new OrderUpdate();
+        update.setId(1L);
+        update.setUserName("name");
+        update.setAmount(BigDecimal.TEN);
+        update.setUpdateTime(LocalDateTime.now());
+
+        updates = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            updates.add(update);
+        }
+
+        mapper = Mappers.getMapper(OrderCopyMapper.class);
+        copyNonNullProperties = findCopyNonNullProperties();
+    }
+
+    /**
+     * 查找LBeanUtils中的copyNonNullProperties(source, target)方法
+     */
+    private static MethodHandle findCopyNonNullProperties() throws ReflectiveOperationException {
+        String className = System.getProperty(BEAN_UTILS_PROPERTY);
+        if (null == className || className.trim().isEmpty()) {
+            throw new IllegalStateException("请通过-D" + BEAN_UTILS_PROPERTY + "=<LBeanUtils全名>指定lcommon中的LBeanUtils");
+        }
+
+        Method method = Arrays.stream(Class.forName(className.trim()).getMethods())
+                .filter(item -> "copyNonNullProperties".equals(item.getName()) && 2 == item.getParameterCount()
+                        && Modifier.isStatic(item.getModifiers()))
+                .findFirst()
+                .orElseThrow(() -> new NoSuchMethodException(className + ".copyNonNullProperties"));
+        return MethodHandles.publicLookup().unreflect(method)
+                .asType(MethodType.methodType(void.class, Object.class, Object.class));
+    }
+
+    @Benchmark
+    public Order mapstructCopy() {
+        Order order = new Order();
+        mapper.updateDto(update, order);
+        return order;
+    }
+
+    @Benchmark
+    public Order reflectiveCopy() throws Throwable {
+        Order order = new Order();
+        copyNonNullProperties.invokeExact((Object) update, (Object) order);
+        return order;
+    }
+
+    @Benchmark
+    public List<Order> mapstructList() {
+        return mapper.toOrders(updates);
+    }
+
+    @Benchmark
+    public List<Order> reflectiveList() throws Throwable {
+        List<Order> list = new ArrayList<>(updates.size());
+        for (OrderUpdate item : updates) {
+            Order order = new Order();
+            copyNonNullProperties.invokeExact((Object) item, (Object) order);
+            list.add(order);
+        }
+
+        return list;
+    }
+
+    public static class OrderUpdate {
+        private Long id;
+        private String userName;
+        private String orderCode;
+        private BigDecimal amount;
+        private Integer quantity;
+        private String remark;
+        private LocalDateTime updateTime;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getUserName() {
+            return userName;
+        }
+
+        public void setUserName(String userName) {
+            this.userName = userName;
+        }
+
+        public String getOrderCode() {
+            return orderCode;
+        }
+
+        public void setOrderCode(String orderCode) {
+            this.orderCode = orderCode;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+
+        public String getRemark() {
+            return remark;
+        }
+
+        public void setRemark(String remark) {
+            this.remark = remark;
+        }
+
+        public LocalDateTime getUpdateTime() {
+            return updateTime;
+        }
+
+        public void setUpdateTime(LocalDateTime updateTime) {
+            this.updateTime = updateTime;
+        }
+    }
+
+    public static class Order extends OrderUpdate {
+        private LocalDateTime createTime;
+
+        public LocalDateTime getCreateTime() {
+            return createTime;
+        }
+
+        public void setCreateTime(LocalDateTime createTime) {
+            this.createTime = createTime;
+        }
+    }
+}
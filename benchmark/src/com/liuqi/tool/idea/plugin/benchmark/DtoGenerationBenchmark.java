@@ -0,0 +1,69 @@
+package com.liuqi.tool.idea.plugin.benchmark;
+
+import com.liuqi.tool.idea.plugin.engine.AccessorTemplates;
+import com.liuqi.tool.idea.plugin.engine.DtoMembers;
+import com.liuqi.tool.idea.plugin.engine.EntityModel;
+import com.liuqi.tool.idea.plugin.engine.FieldModel;
+import com.liuqi.tool.idea.plugin.engine.JavaSourceFormatter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DTO属性复制耗时随属性数量变化的回归测试
+ * copyFields测试ClassCreator.copyFields使用的DtoMembers，所有属性及方法只拼接一次，耗时应随属性数量线性增长；
+ * rebuildPerField模拟原来copyFields的方式，每添加一个属性都为已有的全部属性重新生成访问方法并格式化整个类，耗时按平方增长，作为对照
+ *
+ * @author LiuQi 2020/6/20-10:30
+ * @version V1.0
+ **/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoGenerationBenchmark {
+    @Param({"10", "60", "200", "1000"})
+    private int fieldCount;
+
+    private EntityModel model;
+    private List<String> disposedFields;
+
+    @Setup
+    public void setup() {
+        model = SyntheticEntities.entity(fieldCount);
+        disposedFields = Arrays.asList("createTime", "deleted");
+    }
+
+    @Benchmark
+    public DtoMembers copyFields() {
+        return DtoMembers.of(model.getEntityName() + "DTO", model.getFields(), disposedFields,
+                Collections.singletonList("ExcelField"));
+    }
+
+    @Benchmark
+    public String rebuildPerField() {
+        String className = model.getEntityName() + "DTO";
+        StringBuilder fields = new StringBuilder();
+        String result = "";
+        for (FieldModel field : model.getFields()) {
+            fields.append("private ").append(field.getTypeName()).append(" ").append(field.getName()).append(";\n");
+
+            StringBuilder methods = new StringBuilder();
+            for (FieldModel added : model.getFields()) {
+                methods.append(AccessorTemplates.createAll(className, added.getName(), added.getTypeName()));
+                if (added == field) {
+                    break;
+                }
+            }
+
+            result = JavaSourceFormatter.format("public class " + className + "{" + fields + methods + "}");
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,25 @@
+package com.liuqi.tool.idea.plugin.benchmark;
+
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
+
+import java.util.List;
+
+/**
+ * CopyBenchmark使用的对象转换器，由MapStruct注解处理器在编译时生成实现类
+ * updateDto与mapper.mapstruct.copy为true时生成的方法一致
+ *
+ * @author LiuQi 2020/6/20-11:00
+ * @version V1.0
+ **/
+@Mapper
+public interface OrderCopyMapper {
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    void updateDto(CopyBenchmark.OrderUpdate update, @MappingTarget CopyBenchmark.Order dto);
+
+    CopyBenchmark.Order toOrder(CopyBenchmark.OrderUpdate update);
+
+    List<CopyBenchmark.Order> toOrders(List<CopyBenchmark.OrderUpdate> updates);
+}
@@ -0,0 +1,82 @@
+package com.liuqi.tool.idea.plugin.benchmark;
+
+import com.liuqi.tool.idea.plugin.bean.GeneratorConfig;
+import com.liuqi.tool.idea.plugin.engine.DtoRenderer;
+import com.liuqi.tool.idea.plugin.engine.EntityModel;
+import com.liuqi.tool.idea.plugin.engine.FieldModel;
+import com.liuqi.tool.idea.plugin.engine.MapperXmlRenderer;
+import com.liuqi.tool.idea.plugin.utils.MyStringUtils;
+import org.apache.commons.lang.StringUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 生成过程中不依赖IDE部分的基准测试
+ * 分别测试DTO生成、Mapper映射文件生成、属性名转列名及Column注解解析，
+ * 以属性数量为参数，结合-prof gc查看每次操作的内存分配
+ *
+ * @author LiuQi 2020/6/20-9:10
+ * @version V1.0
+ **/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PipelineBenchmark {
+    @Param({"10", "50", "200", "1000"})
+    private int fieldCount;
+
+    private EntityModel model;
+    private GeneratorConfig config;
+    private List<String> fieldNames;
+    private List<Map<String, String>> columns;
+
+    @Setup
+    public void setup() {
+        model = SyntheticEntities.entity(fieldCount);
+        config = GeneratorConfig.of(Collections.emptyMap());
+        fieldNames = SyntheticEntities.fieldNames(fieldCount);
+        columns = SyntheticEntities.columns(fieldCount);
+    }
+
+    @Benchmark
+    public String renderDto() {
+        return DtoRenderer.render(model, "com.example.domain.dto", "", Collections.emptyList());
+    }
+
+    @Benchmark
+    public String renderMapperXml() {
+        return MapperXmlRenderer.render(model, "OrderDao", "OrderDTO", "OrderQuery", config);
+    }
+
+    @Benchmark
+    public void toUnderLineStr(Blackhole blackhole) {
+        for (String name : fieldNames) {
+            blackhole.consume(MyStringUtils.toUnderLineStr(name));
+        }
+    }
+
+    /**
+     * 改为单次遍历前的转换方式，作为toUnderLineStr的对照
+     */
+    @Benchmark
+    public void splitByCharacterTypeCamelCase(Blackhole blackhole) {
+        for (String name : fieldNames) {
+            blackhole.consume(MyStringUtils.firstLetterToLower(Arrays.stream(StringUtils.splitByCharacterTypeCamelCase(name))
+                    .reduce((s1, s2) -> s1.toLowerCase().concat("_").concat(s2.toLowerCase())).orElse("")));
+        }
+    }
+
+    @Benchmark
+    public List<FieldModel> parseColumnDefinition() {
+        return SyntheticEntities.fields(fieldNames, columns);
+    }
+}
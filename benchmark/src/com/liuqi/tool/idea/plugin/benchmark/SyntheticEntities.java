@@ -0,0 +1,114 @@
+package com.liuqi.tool.idea.plugin.benchmark;
+
+import com.liuqi.tool.idea.plugin.engine.CodeComment;
+import com.liuqi.tool.idea.plugin.engine.EntityModel;
+import com.liuqi.tool.idea.plugin.engine.FieldModel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基准测试使用的实体信息
+ * 按指定属性数量生成实体，属性类型在字符串、整数、时间、金额、枚举及Lob之间轮换，
+ * Column注解的写法与实体类源码中解析出来的原始文本一致
+ *
+ * @author LiuQi 2020/6/20-9:10
+ * @version V1.0
+ **/
+public final class SyntheticEntities {
+    private static final String[] NAME_PREFIXES = {"userName", "orderItemCode", "createUserId", "HTTPStatus",
+            "totalAmount", "remarkText"};
+
+    private SyntheticEntities() {
+    }
+
+    /**
+     * 生成属性名称，包含连续大写及数字等驼峰拆分时需要处理的情况
+     */
+    public static List<String> fieldNames(int count) {
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(NAME_PREFIXES[i % NAME_PREFIXES.length] + i);
+        }
+
+        return names;
+    }
+
+    /**
+     * 生成每个属性Column注解中的原始文本，Key为注解属性名称
+     */
+    public static List<Map<String, String>> columns(int count) {
+        List<Map<String, String>> columns = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, String> column = new HashMap<>(4);
+            switch (i % 6) {
+                case 0:
+                    column.put("columnDefinition", "\"varchar(64) not null comment '名称" + i + "'\"");
+                    break;
+                case 1:
+                    column.put("length", "32");
+                    column.put("nullable", "false");
+                    break;
+                case 2:
+                    column.put("columnDefinition", "\"bigint comment '用户" + i + "'\"");
+                    break;
+                case 3:
+                    column.put("name", "\"http_status_" + i + "\"");
+                    break;
+                case 4:
+                    column.put("columnDefinition", "\"decimal(18, 2) default 0 comment '金额'\"");
+                    break;
+                default:
+                    break;
+            }
+
+            columns.add(column);
+        }
+
+        return columns;
+    }
+
+    /**
+     * 根据属性名称及Column注解生成属性信息
+     */
+    public static List<FieldModel> fields(List<String> names, List<Map<String, String>> columns) {
+        List<FieldModel> fields = new ArrayList<>(names.size() + 1);
+        fields.add(new FieldModel("id", "Long", "java.lang.Long", Collections.emptyMap(), false, false));
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            Map<String, String> column = columns.get(i);
+            switch (i % 6) {
+                case 0:
+                case 1:
+                    fields.add(new FieldModel(name, "String", "java.lang.String", column, false, false));
+                    break;
+                case 2:
+                    fields.add(new FieldModel(name, "Long", "java.lang.Long", column, false, false));
+                    break;
+                case 3:
+                    fields.add(new FieldModel(name, "Status", "com.example.domain.Status", column, true, false));
+                    break;
+                case 4:
+                    fields.add(new FieldModel(name, "BigDecimal", "java.math.BigDecimal", column, false, false));
+                    break;
+                default:
+                    fields.add(new FieldModel(name, "String", "java.lang.String", column, false, true));
+                    break;
+            }
+        }
+
+        return fields;
+    }
+
+    /**
+     * 生成包含指定数量属性（不含主键）的实体信息
+     */
+    public static EntityModel entity(int count) {
+        List<FieldModel> fields = fields(fieldNames(count), columns(count));
+        return new EntityModel("com.example.domain.entity", "OrderEntity", "t_order",
+                new CodeComment("订单", "Benchmark"), fields, fields);
+    }
+}
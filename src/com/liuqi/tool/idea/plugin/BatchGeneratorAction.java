@@ -0,0 +1,132 @@
+package com.liuqi.tool.idea.plugin;
+
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.actionSystem.LangDataKeys;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.GlobalSearchScopesCore;
+import com.intellij.psi.search.searches.AnnotatedElementsSearch;
+import com.liuqi.tool.idea.plugin.bean.GeneratorConfig;
+import com.liuqi.tool.idea.plugin.utils.ClassResolveCache;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量代码生成器
+ * 在项目视图中选中目录或者模块后，为其中所有被Entity注解的类生成代码；
+ * 每个实体使用单独的{@link EntityCodeGenerator}，在后台任务的多个线程中同时生成文件内容，再逐个文件写入，
+ * 所有写操作属于同一个命令组，可以作为一个整体撤销。
+ *
+ * @author LiuQi 2020/6/2-14:20
+ * @version V1.0
+ **/
+public class BatchGeneratorAction extends MyAnAction {
+    private static final Logger LOG = Logger.getInstance(BatchGeneratorAction.class);
+    private static final String COMMAND_NAME = "Entity Code Generator";
+
+    @Override
+    public void update(@NotNull AnActionEvent anActionEvent) {
+        anActionEvent.getPresentation().setEnabledAndVisible(null != anActionEvent.getProject()
+                && null != getSelectedScope(anActionEvent));
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent anActionEvent) {
+        Project project = anActionEvent.getProject();
+        GlobalSearchScope scope = getSelectedScope(anActionEvent);
+        if (null == project || null == scope) {
+            return;
+        }
+
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, COMMAND_NAME, true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setText("查找实体类");
+                List<PsiClass> entityClasses = ReadAction.compute(() -> findEntityClasses(project, scope));
+
+                // 配置文件不存在时会先创建，之后每个实体再单独加载
+                GeneratorConfig.load(project);
+
+                // 所有实体共用一个类查找缓存
+                ClassResolveCache classResolveCache = new ClassResolveCache(project);
+
+                // 各实体的生成互不依赖，在多个线程中同时生成；生成只需要读操作，被写操作打断时会重新执行
+                indicator.setText("生成代码");
+                indicator.setIndeterminate(false);
+                AtomicInteger renderedCount = new AtomicInteger();
+                Map<PsiClass, List<GeneratedFile>> renderedFiles = new ConcurrentHashMap<>(entityClasses.size());
+                JobLauncher.getInstance().invokeConcurrentlyUnderProgress(entityClasses, indicator, entityClass -> {
+                    renderedFiles.put(entityClass, ReadAction.nonBlocking(() -> entityClass.isValid()
+                            ? EntityCodeGenerator.of(entityClass, GeneratorConfig.load(project), classResolveCache).render()
+                            : Collections.<GeneratedFile>emptyList()).inSmartMode(project).executeSynchronously());
+                    indicator.setFraction((double) renderedCount.incrementAndGet() / entityClasses.size());
+                    return true;
+                });
+
+                // 每个文件使用单独的写操作，写入过程中界面可以响应；取消或者失败时删除已经写入的文件
+                indicator.checkCanceled();
+                indicator.setText("写入文件");
+                List<GeneratedFile> files = new ArrayList<>();
+                entityClasses.forEach(entityClass -> files.addAll(renderedFiles.get(entityClass)));
+                GeneratedFile.writeAll(project, COMMAND_NAME, files, indicator);
+
+                LOG.info("Code generated for " + entityClasses.size() + " entities, " + classResolveCache);
+            }
+        });
+    }
+
+    /**
+     * 获取项目视图中选中的范围
+     * 选中目录时只处理目录下的类，选中模块时处理整个模块
+     *
+     * @return 没有选中目录或者模块时返回null
+     */
+    private GlobalSearchScope getSelectedScope(AnActionEvent anActionEvent) {
+        Project project = anActionEvent.getProject();
+        if (null == project) {
+            return null;
+        }
+
+        VirtualFile file = anActionEvent.getData(CommonDataKeys.VIRTUAL_FILE);
+        if (null != file && file.isDirectory()) {
+            return GlobalSearchScopesCore.directoryScope(project, file, true);
+        }
+
+        Module module = anActionEvent.getData(LangDataKeys.MODULE_CONTEXT);
+        if (null != module) {
+            return module.getModuleScope(false);
+        }
+
+        return null;
+    }
+
+    /**
+     * 查找范围内所有被Entity注解的类
+     */
+    private List<PsiClass> findEntityClasses(Project project, GlobalSearchScope scope) {
+        PsiClass entityAnnotation = JavaPsiFacade.getInstance(project)
+                .findClass("javax.persistence.Entity", GlobalSearchScope.allScope(project));
+        if (null == entityAnnotation) {
+            return new ArrayList<>(0);
+        }
+
+        return new ArrayList<>(AnnotatedElementsSearch.searchPsiClasses(entityAnnotation, scope).findAll());
+    }
+}
@@ -4,36 +4,64 @@ import com.intellij.ide.highlighter.JavaFileType;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.*;
+import com.liuqi.tool.idea.plugin.engine.DtoMembers;
+import com.liuqi.tool.idea.plugin.engine.FieldModel;
 import com.liuqi.tool.idea.plugin.utils.PsiUtils;
 import org.apache.commons.lang.StringUtils;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Optional;
-import java.util.function.Consumer;
-import java.util.function.Function;
+import java.util.*;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 /**
  * 类创建器
+ * 创建过程中的各个步骤只记录需要导入的类以及需要增加的成员，在生成时才一次性生成完整的类文本，
+ * 只解析一次、格式化一次；生成过程只需要读操作，生成的文件在写操作中再添加到目录中，见{@link GeneratedFile}。
  *
  * @author LiuQi 2019/7/12-10:28
  * @version V1.0
  **/
 class ClassCreator {
-    private PsiJavaFile javaFile;
+    private String name;
+    private String content;
     private Project project;
     private PsiUtils psiUtils;
 
-    private ClassCreator(Module module) {
-        this.psiUtils = PsiUtils.of(module);
-        this.project = module.getProject();
+    /**
+     * 需要导入的类，Key为类的简单名称，Value为类的全名
+     */
+    private final Map<String, String> imports = new LinkedHashMap<>(16);
+
+    /**
+     * 需要增加到类中的成员
+     */
+    private final StringBuilder members = new StringBuilder();
+
+    /**
+     * 复制属性时需要为每个属性增加的注解
+     */
+    private final List<String> fieldAnnotations = new ArrayList<>(2);
+
+    private boolean withGetterAndSetterMethods = false;
+
+    /**
+     * 增量生成时实体的指纹，为空时已存在的类不做任何处理
+     */
+    private String fingerprint;
+
+    private ClassCreator(PsiUtils psiUtils) {
+        this.psiUtils = psiUtils;
+        this.project = psiUtils.getProject();
     }
 
     static ClassCreator of(Module module) {
-        return new ClassCreator(module);
+        return new ClassCreator(PsiUtils.of(module));
+    }
+
+    /**
+     * 使用指定的辅助类创建，与辅助类共享类查找缓存
+     */
+    static ClassCreator of(PsiUtils psiUtils) {
+        return new ClassCreator(psiUtils);
     }
 
     /**
@@ -44,8 +72,8 @@ class ClassCreator {
      * @return 创建器
      */
     ClassCreator init(String name, String content) {
-        javaFile = (PsiJavaFile) PsiFileFactory.getInstance(project).createFileFromText(name + ".java", JavaFileType.INSTANCE,
-                content);
+        this.name = name;
+        this.content = content;
         return this;
     }
 
@@ -60,7 +88,7 @@ class ClassCreator {
             return this;
         }
 
-        psiUtils.findClass(className).ifPresent(javaFile::importClass);
+        psiUtils.findClass(className).ifPresent(this::importClass);
         return this;
     }
 
@@ -105,139 +133,125 @@ class ClassCreator {
             return this;
         }
 
-        javaFile.importClass(psiClass);
-        return this;
+        return importQualifiedName(psiClass.getQualifiedName());
     }
 
     /**
-     * 将当前类放到指定目录
-     *
-     * @param psiDirectory 类需要放置的目录
-     * @return 处理链，可以继续对所生成的类进行处理
-     */
-    And addTo(PsiDirectory psiDirectory) {
-        return new And(((PsiJavaFile) Optional.ofNullable(psiDirectory.findFile(javaFile.getName())).orElseGet(() -> {
-            psiUtils.format(javaFile);
-            return (PsiJavaFile) psiDirectory.add(javaFile);
-        })).getClasses()[0]);
-    }
-
-    /**
-     * 为新生成的类增加Getter与Getter方法
+     * 根据类全名导入类，不检查类是否存在
+     * 用于导入同一次生成过程中生成、但还未添加到目录中的类
      *
+     * @param qualifiedName 类全名
      * @return 创建器
      */
-    ClassCreator addGetterAndSetterMethods() {
-        PsiClass aClass = javaFile.getClasses()[0];
-        psiUtils.addGetterAndSetterMethods(aClass);
+    ClassCreator importQualifiedName(String qualifiedName) {
+        if (null == qualifiedName || !qualifiedName.contains(".")) {
+            return this;
+        }
+
+        // 与当前类同名、java.lang包中的类以及简单名称已被导入过的类都不需要再导入
+        String simpleName = qualifiedName.substring(qualifiedName.lastIndexOf(".") + 1);
+        if (simpleName.equals(name) || qualifiedName.equals("java.lang." + simpleName)) {
+            return this;
+        }
 
+        imports.putIfAbsent(simpleName, qualifiedName);
         return this;
     }
 
-    ClassCreator copyFields(PsiClass srcClass) {
-        return this.copyFields(srcClass, new ArrayList<>(0));
-    }
+    /**
+     * 生成需要放置到指定目录的类文件
+     * 如果目录中已经存在同名文件，则不再生成，直接使用已存在的类；增量生成时如果实体指纹已变化，则生成对已存在类的更新。
+     * 只需要在读操作中执行
+     *
+     * @param root 根目录
+     * @param path 类需要放置的目录相对于根目录的路径
+     * @return 生成的文件，文件已存在且不需要更新时返回空
+     */
+    Optional<GeneratedFile> build(PsiDirectory root, String path) {
+        PsiFile existing = GeneratedFile.find(root, path, name + ".java");
+        if (null != existing) {
+            if (null == fingerprint || !IncrementalPatcher.isChanged(existing, fingerprint)) {
+                return Optional.empty();
+            }
+
+            // 更新时只替换变化的元素，被替换的元素在更新时单独格式化
+            return Optional.of(GeneratedFile.patch(existing, render()));
+        }
 
-    ClassCreator copyFields(PsiClass srcClass, String...disposedFields) {
-        return this.copyFields(srcClass, Arrays.stream(disposedFields).collect(Collectors.toList()));
+        PsiJavaFile javaFile = render();
+        psiUtils.format(javaFile);
+        return Optional.of(GeneratedFile.of(root, path, javaFile));
     }
 
     /**
-     * 从目标类中复制属性到当前类
+     * 启用增量生成，类已存在且文件中记录的指纹与实体指纹不一致时更新已存在的类
      *
-     * @param srcClass 需要复制的属性所在的类
+     * @param fingerprint 实体当前的指纹
      * @return 创建器
      */
-    ClassCreator copyFields(PsiClass srcClass, List<String> disposedFields) {
-        PsiClass aClass = javaFile.getClasses()[0];
-        PsiElementFactory elementFactory = PsiElementFactory.SERVICE.getInstance(project);
-        for (PsiField field : srcClass.getFields()) {
-            String name = field.getName();
-            PsiType type = field.getType();
-            if (disposedFields.contains(name)) {
-                continue;
-            }
-
-            psiUtils.findClass(type.getCanonicalText()).ifPresent(typeClass -> psiUtils.importClass(aClass, typeClass));
-
-            String typeName = type.getCanonicalText();
-            if (typeName.contains(".")) {
-                typeName = typeName.substring(typeName.lastIndexOf(".") + 1);
-            }
+    ClassCreator incremental(String fingerprint) {
+        this.fingerprint = fingerprint;
+        return this;
+    }
 
-            // 添加校验注解
-            PsiAnnotation psiAnnotation = field.getAnnotation("javax.persistence.Column");
-            StringBuilder annotationStringBuilder = new StringBuilder("");
-            if (null != psiAnnotation) {
-                PsiAnnotationMemberValue memberValue = psiAnnotation.findAttributeValue("columnDefinition");
-                if (null != memberValue) {
-                    String str = memberValue.getText();
-
-                    if (typeName.equals("String")) {
-                        // 只有字符串的时候才添加长度限制
-                        if (str.contains("varchar") || str.contains("char")) {
-                            str = str.replace("varchar(", "").replace("char(", "");
-                            int idx = str.indexOf(")");
-                            if (-1 != idx) {
-                                String lengthStr = str.substring(0, idx).replaceAll("\"", "");
-                                if (StringUtils.isNotBlank(lengthStr)) {
-                                    int length = Integer.parseInt(lengthStr);
-                                    annotationStringBuilder.append("@Length(max = ").append(length).append(") ");
-                                    importClass("org.hibernate.validator.constraints.Length");
-                                }
-                            }
-                        }
-                    }
-
-                    // 如果是not null，需要加上NotNull校验 javax.validation.constraints
-                    if (str.contains("not null") && !typeName.toLowerCase().contains("type")
-                            && !typeName.toLowerCase().equals("localdatetime")
-                            && !typeName.toLowerCase().equals("localdate")) {
-                        if (typeName.equals("String")) {
-                            annotationStringBuilder.append("@NotBlank ");
-                            importClass("org.hibernate.validator.constraints.NotBlank");
-                        } else {
-                            annotationStringBuilder.append("@NotNull ");
-                            importClass("javax.validation.constraints.NotNull");
-                        }
-                    }
-                }
-            }
+    /**
+     * 生成完整的类文本并解析成Java文件，解析后的文件还未添加到任何目录中
+     *
+     * @return 生成的Java文件
+     */
+    private PsiJavaFile render() {
+        StringBuilder text = new StringBuilder(content.length() + members.length() + imports.size() * 48);
+        imports.values().forEach(qualifiedName -> text.append("import ").append(qualifiedName).append(";\n"));
 
-            if (typeName.equalsIgnoreCase("localdate")) {
-                annotationStringBuilder.append("@JsonFormat(pattern = \"yyyy-MM-dd\") ");
-                importClass("com.fasterxml.jackson.annotation.JsonFormat");
-            } else if (typeName.equalsIgnoreCase("localdatetime")) {
-                annotationStringBuilder.append("@JsonFormat(pattern = \"yyyy-MM-dd HH:mm:ss\") ");
-                importClass("com.fasterxml.jackson.annotation.JsonFormat");
-            }
+        int idx = content.lastIndexOf("}");
+        text.append(content, 0, idx)
+                .append(members)
+                .append(content.substring(idx));
 
-            PsiField cField = elementFactory.createFieldFromText(annotationStringBuilder.toString() + "private " + typeName + " " + name + ";\n", null);
-            aClass.add(cField);
+        PsiJavaFile javaFile = (PsiJavaFile) PsiFileFactory.getInstance(project).createFileFromText(name + ".java",
+                JavaFileType.INSTANCE, text);
 
-            // 针对每一个属性生成三个方法
-            psiUtils.addGetterAndSetterMethods(aClass);
-            psiUtils.format(aClass);
+        if (withGetterAndSetterMethods) {
+            psiUtils.addGetterAndSetterMethods(javaFile.getClasses()[0]);
         }
 
-        return this;
+        return javaFile;
     }
 
-    public static class And {
-        private PsiClass psiClass;
-
-        private And(PsiClass psiClass) {
-            this.psiClass = psiClass;
-        }
+    /**
+     * 为新生成的类增加Getter与Getter方法
+     *
+     * @return 创建器
+     */
+    ClassCreator addGetterAndSetterMethods() {
+        withGetterAndSetterMethods = true;
+        return this;
+    }
 
-        And and(Consumer<PsiClass> callback) {
-            callback.accept(psiClass);
-            return this;
-        }
+    /**
+     * 为复制的每一个属性增加注解，需要在复制属性前调用
+     *
+     * @param annotation 注解类名
+     * @return 创建器
+     */
+    ClassCreator annotateFields(String annotation) {
+        fieldAnnotations.add(annotation);
+        importClass(annotation);
+        return this;
+    }
 
-        And and(Runnable runnable) {
-            runnable.run();
-            return this;
-        }
+    /**
+     * 复制实体属性到当前类
+     * 属性及其Getter与Setter方法都以文本方式生成，见{@link DtoMembers}
+     *
+     * @param fields         需要复制的属性
+     * @param disposedFields 不需要复制的属性名称
+     * @return 创建器
+     */
+    ClassCreator copyFields(List<FieldModel> fields, List<String> disposedFields) {
+        DtoMembers dtoMembers = DtoMembers.of(this.name, fields, disposedFields, fieldAnnotations);
+        dtoMembers.getImports().forEach(this::importClass);
+        members.append(dtoMembers.getText());
+        return this;
     }
 }
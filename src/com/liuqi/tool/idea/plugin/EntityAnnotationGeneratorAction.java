@@ -3,9 +3,13 @@ package com.liuqi.tool.idea.plugin;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.psi.*;
+import com.liuqi.tool.idea.plugin.bean.GeneratorConfig;
+import com.liuqi.tool.idea.plugin.engine.TableIndexes;
 import com.liuqi.tool.idea.plugin.utils.MyStringUtils;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.*;
+
 /**
  * 实体类注解生成器
  * 包括以下四个功能：
@@ -13,6 +17,8 @@ import org.jetbrains.annotations.NotNull;
  * 2. 为实体类增加Entity注解；
  * 3. 为实体类增加Table注解；
  * 4. 如果实体上包含了com.liuqi.common.web.common.annotation.Comment注解，那么会获取基值并作为表的中文注释；
+ * 主键默认使用数据库自增，此时Hibernate无法批量插入，可通过entity.id.generator配置为按序列或主键表成批分配；
+ * 配置entity.index为true时，按生成的查询中使用的条件及排序字段在Table注解中增加索引；
  *
  * @author  LiuQi 2019/12/13-19:40
  * @version V1.0
@@ -46,10 +52,28 @@ public class EntityAnnotationGeneratorAction extends MyAnAction {
         }
 
         String tableName = "t_" + MyStringUtils.toUnderLineStr(className);
+        GeneratorConfig config = GeneratorConfig.load(project);
+        List<String> idAnnotations = getIdAnnotations(config, tableName);
+
+        // 生成的查询默认使用的条件及排序字段需要的索引
+        String tableAttributes = "name = \"" + tableName + "\"";
+        if (config.getWithIndex()) {
+            Map<String, String> columns = new HashMap<>(16);
+            for (PsiField field : aClass.getAllFields()) {
+                columns.put(field.getName(), MyStringUtils.toUnderLineStr(field.getName()));
+            }
+
+            String indexes = TableIndexes.toAnnotationAttribute(tableName, TableIndexes.suggest(columns));
+            if (!indexes.isEmpty()) {
+                tableAttributes += ", " + indexes;
+            }
+        }
+
+        String pTableAttributes = tableAttributes;
         WriteCommandAction.runWriteCommandAction(project, () -> {
             PsiAnnotation psiAnnotation = psiUtils.addAnnotation(aClass, "javax.persistence.Entity");
             psiUtils.addAnnotation(aClass, "lombok.Data");
-            PsiElement tableElement = psiUtils.addAnnotationFromStrAfter(aClass, "@Table(name = \"" + tableName + "\")", psiAnnotation);
+            PsiElement tableElement = psiUtils.addAnnotationFromStrAfter(aClass, "@Table(" + pTableAttributes + ")", psiAnnotation);
             psiUtils.addAnnotationFromStrAfter(aClass, "@org.hibernate.annotations.Table(appliesTo = \"" + tableName + "\",comment = \"" + pTableComment + "\")", tableElement);
             PsiJavaFile javaFile = (PsiJavaFile) aClass.getContainingFile();
             psiUtils.findClass("javax.persistence.Table").ifPresent(javaFile::importClass);
@@ -62,7 +86,10 @@ public class EntityAnnotationGeneratorAction extends MyAnAction {
                 if ("id".equals(name)) {
                     // 主键特殊处理
                     PsiAnnotation psiAnnotation1 = psiUtils.addAnnotation(field, "javax.persistence.Id");
-                    psiUtils.addAnnotationFromStrAfter(field, "@javax.persistence.GeneratedValue(strategy = GenerationType.IDENTITY)", psiAnnotation1);
+                    // 都添加在Id注解之后，倒序添加以保持顺序
+                    for (int i = idAnnotations.size() - 1; i >= 0; i--) {
+                        psiUtils.addAnnotationFromStrAfter(field, idAnnotations.get(i), psiAnnotation1);
+                    }
                     continue;
                 }
 
@@ -91,4 +118,24 @@ public class EntityAnnotationGeneratorAction extends MyAnAction {
             }
         });
     }
+
+    /**
+     * 根据配置获取主键生成方式的注解
+     * 序列及主键表按allocationSize成批分配主键，Hibernate默认使用pooled优化器，插入时不需要每次访问数据库
+     */
+    private List<String> getIdAnnotations(GeneratorConfig config, String tableName) {
+        int allocationSize = config.getIdAllocationSize();
+        switch (config.getIdGenerator()) {
+            case "sequence":
+                return Arrays.asList("@javax.persistence.GeneratedValue(strategy = GenerationType.SEQUENCE, generator = \"" + tableName + "_seq\")",
+                        "@javax.persistence.SequenceGenerator(name = \"" + tableName + "_seq\", sequenceName = \"" + tableName +
+                                "_seq\", allocationSize = " + allocationSize + ")");
+            case "table":
+                return Arrays.asList("@javax.persistence.GeneratedValue(strategy = GenerationType.TABLE, generator = \"" + tableName + "_gen\")",
+                        "@javax.persistence.TableGenerator(name = \"" + tableName + "_gen\", table = \"t_id_generator\", " +
+                                "pkColumnValue = \"" + tableName + "\", allocationSize = " + allocationSize + ")");
+            default:
+                return Collections.singletonList("@javax.persistence.GeneratedValue(strategy = GenerationType.IDENTITY)");
+        }
+    }
 }
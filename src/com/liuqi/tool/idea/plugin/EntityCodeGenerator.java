@@ -0,0 +1,1395 @@
+package com.liuqi.tool.idea.plugin;
+
+import com.intellij.lang.xml.XMLLanguage;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileTypes.FileTypes;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.FileIndexFacade;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.*;
+import com.liuqi.tool.idea.plugin.bean.GeneratorConfig;
+import com.liuqi.tool.idea.plugin.engine.CodeComment;
+import com.liuqi.tool.idea.plugin.engine.ControllerRenderer;
+import com.liuqi.tool.idea.plugin.engine.DtoRenderer;
+import com.liuqi.tool.idea.plugin.engine.EntityModel;
+import com.liuqi.tool.idea.plugin.engine.ExcelUploadRenderer;
+import com.liuqi.tool.idea.plugin.engine.FieldModel;
+import com.liuqi.tool.idea.plugin.engine.FingerprintTags;
+import com.liuqi.tool.idea.plugin.engine.LoadTestRenderer;
+import com.liuqi.tool.idea.plugin.engine.MapperXmlRenderer;
+import com.liuqi.tool.idea.plugin.engine.ReactiveRenderer;
+import com.liuqi.tool.idea.plugin.engine.TableIndexes;
+import com.liuqi.tool.idea.plugin.utils.ClassResolveCache;
+import com.liuqi.tool.idea.plugin.utils.PsiUtils;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.*;
+
+/**
+ * 单个实体的代码生成器
+ * 每个实体在生成时都使用独立的生成器实例，生成过程中的配置及已生成的文件等状态均保存在实例中，
+ * 因此批量生成时各实体之间互不影响。
+ * 生成分为两个阶段：在读操作中生成所有文件的内容，再在写操作中一次性添加到目录中。
+ * 生成代码路径：
+ * bean
+ * - dto: DTO对象存储路径
+ * - query：查询对象存储路径
+ * - mapper：DTO与Entity对象转换器路径
+ * domain
+ * - dao：MyBatis数据库操作类存储路径
+ * - row：R2DBC映射对象存储路径
+ * - repository：JPA数据库操作类存储路径
+ * - entity：实体类存储路径
+ * service：服务类存储路径
+ * web：控制器类存储路径
+ * config：公共配置类存储路径
+ * <p>
+ * 注意会使用两个公共包，源码地址：https://github.com/icarusliu/lcommon
+ *
+ * @author LiuQi 2019/7/11-10:50
+ * @version V1.0
+ **/
+class EntityCodeGenerator {
+    private static final Logger LOG = Logger.getInstance(EntityCodeGenerator.class);
+
+    /**
+     * 生成的各类代码相对于工作目录的路径
+     */
+    private static final Map<String, String> DIRECTORIES = new HashMap<>(16);
+
+    /**
+     * 清理findAll缓存的注解，只新增记录时单条记录的缓存不受影响
+     */
+    private static final String ALL_CACHE_EVICT = "@CacheEvict(cacheNames = ALL_CACHE_NAME, allEntries = true)";
+
+    /**
+     * 虚拟线程配置中使用的Tomcat定制接口，Spring Boot 2.2开始提供
+     */
+    private static final String TOMCAT_CUSTOMIZER = "org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer";
+
+    /**
+     * 是否已经提示过未生成虚拟线程配置，批量生成时每个项目只提示一次
+     */
+    private static final Key<Boolean> VIRTUAL_THREAD_WARNED = Key.create("EntityCodeGenerator.virtualThreadWarned");
+
+    static {
+        DIRECTORIES.put("dto", "bean/dto");
+        DIRECTORIES.put("mapper", "bean/mapper");
+        DIRECTORIES.put("query", "bean/query");
+        DIRECTORIES.put("dao", "domain/dao");
+        DIRECTORIES.put("repository", "domain/repository");
+        DIRECTORIES.put("row", "domain/row");
+        DIRECTORIES.put("service", "service");
+        DIRECTORIES.put("web", "web");
+        DIRECTORIES.put("config", "config");
+    }
+
+    private final Project project;
+    private final PsiUtils psiUtils;
+    private final PsiClass entityClass;
+    private final PsiDirectory workDir;
+    private final String basePackage;
+    private final GeneratorConfig config;
+    private final EntityModel model;
+    private final CodeComment comment;
+
+    private final String entityName;
+    private final String repositoryName;
+    private final String dtoName;
+    private final String dtoAddName;
+    private final String dtoUpdateName;
+    private final String mapperName;
+    private final String queryName;
+    private final String daoName;
+    private final String serviceName;
+    private final String controllerName;
+
+    /**
+     * 本次生成的文件，按生成顺序排列
+     */
+    private final List<GeneratedFile> files = new ArrayList<>(16);
+
+    private EntityCodeGenerator(PsiClass aClass, GeneratorConfig config, ClassResolveCache classResolveCache) {
+        this.project = aClass.getProject();
+        Module module = FileIndexFacade.getInstance(project).getModuleForFile(aClass.getContainingFile().getVirtualFile());
+        this.psiUtils = PsiUtils.of(module, classResolveCache);
+        this.entityClass = aClass;
+        this.config = config;
+
+        // 获取当前实体所在目录的上两级目录，需要严格按说明中的目录组织，其它目录不考虑
+        this.workDir = aClass.getContainingFile().getContainingDirectory().getParentDirectory().getParentDirectory();
+        String entityPackage = psiUtils.getPackageName(aClass);
+        String domainPackage = entityPackage.substring(0, Math.max(entityPackage.lastIndexOf("."), 0));
+        this.basePackage = domainPackage.substring(0, Math.max(domainPackage.lastIndexOf("."), 0));
+        this.model = PsiEntityModels.of(aClass);
+        this.comment = model.getComment();
+
+        // 生成的类名都由实体名称确定，生成前即可互相引用
+        this.entityName = model.getEntityName();
+        this.repositoryName = entityName + "Repository";
+        this.dtoName = entityName + "DTO";
+        this.dtoAddName = entityName + "AddDTO";
+        this.dtoUpdateName = entityName + "UpdateDTO";
+        this.mapperName = entityName + "Mapper";
+        this.queryName = entityName + "Query";
+        this.daoName = entityName + "Dao";
+        this.serviceName = entityName + "Service";
+        this.controllerName = entityName + "Controller";
+
+        // 获取是否有deleted字段，如果有的话，生成的service方法、dao中的语句中都要增加相应的条件
+        if (model.hasField("deleted")) {
+            config.setWithDeleted(true);
+        }
+
+        // 获取是否有createTime字段，如果有的话，生成service方法的save方法,dao中的语句排序需要增加对应的排序
+        if (model.hasField("createTime")) {
+            config.setWithCreateTime(true);
+        }
+
+        if (model.hasField("userId")) {
+            config.setWithUserId(true);
+        }
+    }
+
+    /**
+     * 为实体类创建生成器
+     * 配置对象会在生成过程中根据实体的属性进行调整，因此每个实体都需要使用单独加载的配置
+     *
+     * @param aClass            实体类，必须被Entity注解
+     * @param config            生成配置
+     * @param classResolveCache 本次生成过程使用的类查找缓存，批量生成时所有实体共用一个
+     * @return 生成器
+     */
+    static EntityCodeGenerator of(PsiClass aClass, GeneratorConfig config, ClassResolveCache classResolveCache) {
+        return new EntityCodeGenerator(aClass, config, classResolveCache);
+    }
+
+    /**
+     * 判断类是否为需要生成代码的实体类
+     *
+     * @param aClass 需要判断的类
+     * @return 被Entity注解时返回true
+     */
+    static boolean isEntity(PsiClass aClass) {
+        return null != aClass && null != aClass.getAnnotation("javax.persistence.Entity");
+    }
+
+    /**
+     * 生成实体对应的所有文件
+     * 只读取PSI，不创建目录也不添加文件，只需要在读操作中执行，多个实体可以同时生成；
+     * 已经存在的文件不会再生成，返回的文件通过{@link GeneratedFile}的writeAll方法逐个添加到目录中。
+     *
+     * @return 需要添加的文件
+     */
+    List<GeneratedFile> render() {
+        // 非阻塞读操作被写操作打断后会重新执行，每次都重新生成
+        files.clear();
+
+        // 响应式代码只需要DTO对象
+        if (config.getReactive()) {
+            createDtoClass("");
+            createDtoClass("Update");
+            createDtoClass("Add");
+            createReactiveClasses();
+            return new ArrayList<>(files);
+        }
+
+        createRepository();
+        createDtoClass("");
+        createDtoClass("Update");
+        createDtoClass("Add");
+        createMapperClass();
+        createQuery();
+        createDao();
+        createDaoMappingFile();
+        createServiceImpl();
+        createController();
+        createPage();
+        createJpaBatchConfig();
+        createIndexScript();
+        createVirtualThreadConfiguration();
+        createLoadTestScript();
+
+        return new ArrayList<>(files);
+    }
+
+    /**
+     * 获取生成的类的全名
+     *
+     * @param directory 类所在的目录，见{@link #DIRECTORIES}
+     * @param className 类名
+     * @return 类全名
+     */
+    private String getQualifiedName(String directory, String className) {
+        String packageName = DIRECTORIES.get(directory).replace("/", ".");
+        if (!basePackage.isEmpty()) {
+            packageName = basePackage + "." + packageName;
+        }
+
+        return packageName + "." + className;
+    }
+
+    /**
+     * 生成类并记录到本次生成的文件中，目录中已存在同名类时不生成
+     */
+    private void addClass(ClassCreator creator, String directory) {
+        creator.build(workDir, DIRECTORIES.get(directory)).ifPresent(files::add);
+    }
+
+    /**
+     * 创建Repository
+     */
+    private void createRepository() {
+        String baseRepository = getBaseRepositoryClass();
+        addClass(ClassCreator.of(psiUtils).init(repositoryName,
+                comment.getContent("JPA数据库操作类") +
+                        "\npublic interface " + repositoryName + " extends BaseRepository<" + entityClass.getName() + "> {}")
+                .importClass(entityClass)
+                .importQualifiedName(baseRepository), "repository");
+    }
+
+    /**
+     * 创建DTO对象
+     */
+    private void createDtoClass(String name) {
+        // 先检查是否存在AbstractBaseDTO对象，如果存在的话DTO对象需要继承自该对象
+        // 类注释中记录实体指纹及包含的属性，增量生成时使用
+        String dtoContent = comment.getContent("对象", FingerprintTags.of(model, DtoRenderer.getFieldNames(model, name)))
+                + "\n@Data\npublic class " + entityName + name + "DTO";
+        dtoContent += "{}";
+
+        // 过滤掉一些不必要的字段，与命令行生成时保持一致
+        List<String> disposedFields = DtoRenderer.getDisposedFields(name);
+
+        // 根据Entity对象创建DTO对象
+        ClassCreator creator = ClassCreator.of(psiUtils).init(entityName + name + "DTO", dtoContent);
+
+        // 如果Workbook存在并且ExcelUtils存在，则生成Excel上传下载功能，需要给DTO类增加ExcelField注解
+        if ("".equals(name) && config.getExcelFunc()) {
+            creator.annotateFields("ExcelField");
+        }
+
+        if (config.getIncremental()) {
+            creator.incremental(model.getFingerprint());
+        }
+
+        addClass(creator.copyFields(model.getFields(), disposedFields)
+                .importClass("lombok.Data"), "dto");
+    }
+
+    /**
+     * 创建Mapper对象
+     */
+    private void createMapperClass() {
+        // 先检查EntityMapper是否存在，不存在时先创建EntityMapper然后再创建Mapper
+        String entityMapper = psiUtils.findClass("EntityMapper")
+                .map(PsiClass::getQualifiedName)
+                .orElseGet(() -> {
+                    addClass(ClassCreator.of(psiUtils).init("EntityMapper", "public interface EntityMapper<D, E> {\n" +
+                            "    E toEntity(D dto);\n" +
+                            "    D toDto(E entity);\n" +
+                            "    List<E> toEntity(List<D> dtoList);\n" +
+                            "    List <D> toDto(List<E> entityList);\n" +
+                            "}")
+                            .importClass("java.util.List"), "mapper");
+                    return getQualifiedName("mapper", "EntityMapper");
+                });
+
+        // 修改时只复制非空属性，新增时复制所有属性，由MapStruct生成Getter、Setter调用代替反射
+        String copyMethods = "";
+        if (config.getMapstructCopy()) {
+            copyMethods = "@BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE) " +
+                    "void updateDto(" + dtoUpdateName + " update, @MappingTarget " + dtoName + " dto);" +
+                    dtoName + " fromAddDto(" + dtoAddName + " addDto);";
+        }
+
+        addClass(ClassCreator.of(psiUtils).init(mapperName,
+                comment.getContent("对象转换器") + "\n@Mapper(componentModel = \"spring\")" +
+                        "public interface " + mapperName + " extends EntityMapper<"
+                        + dtoName + ", " + entityClass.getName() + "> {" + copyMethods + "}")
+                .importClass("org.mapstruct.Mapper")
+                .importClassIf("org.mapstruct.BeanMapping", config::getMapstructCopy)
+                .importClassIf("org.mapstruct.MappingTarget", config::getMapstructCopy)
+                .importClassIf("org.mapstruct.NullValuePropertyMappingStrategy", config::getMapstructCopy)
+                .importClass(entityClass)
+                .importQualifiedName(getQualifiedName("dto", dtoName))
+                .importQualifiedName(config.getMapstructCopy() ? getQualifiedName("dto", dtoUpdateName) : null)
+                .importQualifiedName(config.getMapstructCopy() ? getQualifiedName("dto", dtoAddName) : null)
+                .importQualifiedName(entityMapper), "mapper");
+    }
+
+    /**
+     * 增加MyBatis相关文件
+     */
+    private void createQuery() {
+        // 获取BaseQuery对象，没有就不使用
+        boolean baseQueryExists = psiUtils.findClass("BaseQuery")
+                .isPresent();
+
+        StringBuilder content = new StringBuilder()
+                .append(comment.getContent("查询对象"))
+                .append("\n@Data")
+                .append("\npublic class ")
+                .append(queryName)
+                .append(" ");
+
+        if (baseQueryExists) {
+            content.append("extends BaseQuery{private List<Long> ids; private Long idNot; ");
+        } else {
+            content.append("{private Integer page;  \nprivate Integer size; private List<Long> ids; private Long id; private Long idNot; ");
+        }
+
+        // 游标分页时上一页最后一条记录的主键
+        if (config.getSeekQuery()) {
+            content.append("private Long afterId; ");
+        }
+
+        // 列表查询是否查询包括大字段在内的所有列，以及只查询的属性
+        if (config.getLiteQuery()) {
+            content.append("private Boolean fullColumns; private List<String> fields; ");
+        }
+
+        content.append("  }");
+
+        ClassCreator creator = ClassCreator.of(psiUtils)
+                .init(queryName, content.toString())
+                .importClass("lombok.Data")
+                .importClass("java.util.List")
+                .addGetterAndSetterMethods();
+        if (baseQueryExists) {
+            creator.importClass("BaseQuery");
+        }
+
+        addClass(creator, "query");
+    }
+
+    /**
+     * 添加Mybatis Dao
+     */
+    private void createDao() {
+        if (config.getWithSuper()) {
+            addClass(ClassCreator.of(psiUtils).init(daoName,
+                    comment.getContent("数据库操作类") +
+                            "\n@Mapper public interface " + daoName + " extends " + config.getSuperDao() + "" +
+                            "<" + dtoName + ">" +
+                            "{" + (config.getSeekQuery() ? "List<" + dtoName + "> seekQuery(" + queryName + " query);" : "") +
+                            getDirectWriteMethods() + getFindDtoByIdMethod() + "}")
+                    .importClassIf("java.util.List", () -> config.getSeekQuery() || config.getDirectWrite())
+                    .importClassIf("org.apache.ibatis.annotations.Param", () -> config.getDirectWrite() || config.getFindOneDto())
+                    .importQualifiedName(config.getDirectWrite() ? getQualifiedName("dto", dtoUpdateName) : null)
+                    .importQualifiedName(config.getSeekQuery() ? getQualifiedName("query", queryName) : null)
+                    .importClass("org.apache.ibatis.annotations.Mapper")
+                    .importClass(config.getSuperDao())
+                    .importQualifiedName(getQualifiedName("dto", dtoName)), "dao");
+        } else {
+            addClass(ClassCreator.of(psiUtils).init(daoName,
+                    comment.getContent("数据库操作类") +
+                            "\n@Mapper public interface " + daoName + " {" +
+                            "List<" + dtoName + "> query(" + queryName + " query); " +
+                            "void batchAdd(@Param(\"list\") List<" + dtoName + "> dataList);" +
+                            (config.getBatchExecutor() ? "void add(" + dtoName + " dto);" : "") +
+                            (config.getSeekQuery() ? "List<" + dtoName + "> seekQuery(" + queryName + " query);" : "") +
+                            (config.getExplicitPaging() ? "List<" + dtoName + "> pageQuery(" + queryName + " query);" : "") +
+                            (config.getCacheCount() || config.getExplicitPaging() ? "long count(" + queryName + " query);" : "") +
+                            (config.getQueryCursor() ? "Cursor<" + dtoName + "> queryCursor(" + queryName + " query);" : "") +
+                            getDirectWriteMethods() +
+                            getFindDtoByIdMethod() +
+                            "}")
+                    .importClass("java.util.List")
+                    .importClass("org.apache.ibatis.annotations.Mapper")
+                    .importClass("org.apache.ibatis.annotations.Param")
+                    .importClassIf("org.apache.ibatis.cursor.Cursor", config::getQueryCursor)
+                    .importQualifiedName(config.getDirectWrite() ? getQualifiedName("dto", dtoUpdateName) : null)
+                    .importQualifiedName(getQualifiedName("query", queryName))
+                    .importQualifiedName(getQualifiedName("dto", dtoName)), "dao");
+        }
+    }
+
+    /**
+     * 直接修改及删除时Dao中增加的方法，userId不为空时只修改及删除该用户的记录，返回影响的记录数
+     */
+    private String getDirectWriteMethods() {
+        if (!config.getDirectWrite()) {
+            return "";
+        }
+
+        return "int updateSelective(@Param(\"dto\") " + dtoUpdateName + " dto, @Param(\"userId\") Long userId);" +
+                "int deleteById(@Param(\"id\") Long id, @Param(\"userId\") Long userId);" +
+                "int deleteByIds(@Param(\"ids\") List<Long> ids, @Param(\"userId\") Long userId);";
+    }
+
+    /**
+     * 按主键直接查询DTO时Dao中增加的方法
+     */
+    private String getFindDtoByIdMethod() {
+        return config.getFindOneDto() ? dtoName + " findDtoById(@Param(\"id\") Long id);" : "";
+    }
+
+    /**
+     * 创建MyBatis映射文件
+     * 放在resources目录下的mappers目录中，目录不存在时在写入时创建；
+     * 文件已存在时，增量生成且实体指纹变化时更新其中的resultMap、columns及新增语句，否则不做处理
+     */
+    private void createDaoMappingFile() {
+        PsiDirectory resourceDirectory = psiUtils.getResourceDirectory();
+        String fileName = daoName + ".xml";
+        PsiFile existing = GeneratedFile.find(resourceDirectory, "mappers", fileName);
+        if (null != existing && (!config.getIncremental() || !IncrementalPatcher.isChanged(existing, model.getFingerprint()))) {
+            return;
+        }
+
+        String content = MapperXmlRenderer.render(model, getQualifiedName("dao", daoName),
+                getQualifiedName("dto", dtoName), getQualifiedName("query", queryName), config);
+
+        PsiFile psiFile = PsiFileFactory.getInstance(project).createFileFromText(fileName, XMLLanguage.INSTANCE,
+                content);
+        if (null != existing) {
+            files.add(GeneratedFile.patch(existing, psiFile));
+            return;
+        }
+
+        psiUtils.format(psiFile);
+        files.add(GeneratedFile.of(resourceDirectory, "mappers", psiFile));
+    }
+
+    /**
+     * 判断实体对应的Repository中是否有指定方法
+     * Repository还未生成时从其继承的JpaRepository中查找
+     */
+    private boolean repositoryHasMethod(String methodName) {
+        Optional<PsiClass> repositoryClass = psiUtils.findClass(getQualifiedName("repository", repositoryName));
+        if (!repositoryClass.isPresent()) {
+            repositoryClass = psiUtils.findClass("org.springframework.data.jpa.repository.JpaRepository");
+        }
+
+        return repositoryClass.map(aClass -> 0 != aClass.findMethodsByName(methodName, true).length)
+                .orElse(false);
+    }
+
+    /**
+     * 判断项目中的PageRequest是否有静态的of方法
+     * Spring Data 2.0起使用PageRequest.of创建，构造函数不再公开；找不到PageRequest时按1.x处理
+     */
+    private boolean hasPageRequestFactory() {
+        return psiUtils.findClass("org.springframework.data.domain.PageRequest")
+                .map(aClass -> Arrays.stream(aClass.findMethodsByName("of", false))
+                        .anyMatch(method -> method.hasModifierProperty(PsiModifier.STATIC)))
+                .orElse(false);
+    }
+
+    /**
+     * 创建服务实现类
+     */
+    private void createServiceImpl() {
+        StringBuilder content = new StringBuilder(comment.getContent("服务") + "\n@Service public class ")
+                .append(serviceName);
+        if (config.getWithSuper()) {
+            content.append(" extends ")
+                    .append(config.getSuperService().substring(config.getSuperService().lastIndexOf(".") + 1))
+                    .append("<").append(entityClass.getName())
+                    .append(",").append(dtoName)
+                    .append(",").append(queryName)
+                    .append("> ");
+        }
+
+        content.append("{");
+
+        // 服务类中需要额外导入的类
+        Set<String> serviceImports = new LinkedHashSet<>();
+        if (!config.getWithSuper()) {
+            String saveAllMethod = "save";
+            if (repositoryHasMethod("saveAll")) {
+                saveAllMethod = "saveAll";
+            }
+
+            String daoFieldName = StringUtils.uncapitalize(daoName);
+
+            if (useCache()) {
+                appendCacheNames(content, serviceImports);
+            }
+
+            content.append("@Resource private ").append(mapperName).append(" mapper; \n")
+                    .append("\n@Resource private ").append(repositoryName).append(" repository; \n")
+                    .append("\n@Resource private ").append(daoName).append(" ").append(daoFieldName).append("; \n")
+                    .append(useSqlSessionFactory() ? "\n@Resource private SqlSessionFactory sqlSessionFactory; \n" : "")
+                    .append("\n@Override public BaseQuery createQuery() { return new ").append(queryName).append("();}\n")
+                    .append("\n").append(getCacheEvict("#dto.id"))
+                    .append(" @Transactional public void save(").append(dtoName).append(" dto) { repository.save(mapper.toEntity(dto));}");
+
+            // 批量保存时每批刷新并清理一次持久化上下文，使Hibernate按批提交插入语句且不会一直占用内存
+            if (0 < config.getJpaBatchSize()) {
+                content.append("\n private static final int JPA_BATCH_SIZE = ").append(config.getJpaBatchSize()).append(";\n")
+                        .append("\n@PersistenceContext private EntityManager entityManager; \n")
+                        .append("\n").append(getCacheEvict(null))
+                        .append(" @Transactional  public void save(List<").append(dtoName).append("> dtos) {")
+                        .append("List<").append(entityClass.getName()).append("> entities = mapper.toEntity(dtos);")
+                        .append("for (int i = 0; i < entities.size(); i++) { repository.save(entities.get(i));")
+                        .append("if ((i + 1) % JPA_BATCH_SIZE == 0) { entityManager.flush(); entityManager.clear(); } } }");
+                serviceImports.addAll(Arrays.asList("javax.persistence.EntityManager", "javax.persistence.PersistenceContext"));
+            } else {
+                content.append("\n").append(getCacheEvict(null))
+                        .append(" @Transactional  public void save(List<").append(dtoName).append("> dtos) { repository.").append(
+                        saveAllMethod).append("(mapper.toEntity(dtos)); }");
+            }
+
+            // 直接删除时不再先按主键查询出实体
+            content.append("\n").append(getCacheEvict("#id"))
+                    .append(" @Transactional  public void delete(Long id) { ")
+                    .append(config.getDirectWrite() ? daoFieldName + ".deleteById(id, null);" : "repository.delete(id);").append(" }")
+                    .append(useCache() ? "\n@Cacheable(cacheNames = CACHE_NAME, key = \"#id\", unless = \"#result == null\")" : "")
+                    .append("\n @Transactional(readOnly = true)  public Optional<").append(dtoName).append(
+                    "> findOne(Long id) { return Optional.ofNullable(")
+                    .append(config.getFindOneDto() ? daoFieldName + ".findDtoById(id)" : "mapper.toDto(repository.findOne(id))")
+                    .append("); }")
+                    .append(useCache() ? "\n@Cacheable(cacheNames = ALL_CACHE_NAME, key = \"'all'\")" : "")
+                    .append("\n @Transactional(readOnly = true) public List<").append(dtoName).append("> findAll() {");
+
+            // 超过限制时直接报错，需要遍历整张表时使用forEach
+            if (0 < config.getFindAllLimit()) {
+                content.append("List<").append(entityClass.getName()).append("> entities = repository.findAll(")
+                        .append(hasPageRequestFactory() ? "PageRequest.of(0, " : "new PageRequest(0, ")
+                        .append(config.getFindAllLimit() + 1).append(")).getContent();")
+                        .append("if (entities.size() > ").append(config.getFindAllLimit()).append(") {")
+                        .append("throw BusinessException.create(\"记录数超过").append(config.getFindAllLimit())
+                        .append("条，请使用分页查询或forEach遍历\"); }")
+                        .append("return mapper.toDto(entities); }");
+                serviceImports.add("org.springframework.data.domain.PageRequest");
+            } else {
+                content.append("return mapper.toDto(repository.findAll()); }");
+            }
+
+            if (config.getStreamQuery()) {
+                appendStreamQuery(content, daoFieldName, serviceImports);
+            }
+
+            content.append("\n @Transactional(readOnly = true) public List<").append(dtoName).append("> query(")
+                    .append(queryName).append(" query) { return ").append(daoFieldName).append(".query(query);}")
+                    .append("\n @Transactional(readOnly = true) public PageInfo<").append(dtoName).append("> pageQuery(").append(
+                    queryName).append(" query) {");
+            if (config.getExplicitPaging()) {
+                appendExplicitPageQuery(content, daoFieldName, serviceImports);
+            } else if (config.getCacheCount()) {
+                // 总数在包装成PageInfo之前设置到Page中，页数、是否最后一页等属性才会按总数计算
+                content.append("if (null == query.getSize() || null == query.getPage()) { return new PageInfo<>(")
+                        .append(daoFieldName).append(".query(query)); }")
+                        .append("Page<").append(dtoName).append("> page = PageHelper.startPage(query.getPage(), query.getSize(), false)")
+                        .append(".doSelectPage(() -> ").append(daoFieldName).append(".query(query));")
+                        .append("page.setTotal(count(query)); return new PageInfo<>(page);}");
+                serviceImports.add("com.github.pagehelper.Page");
+            } else {
+                content.append("if (null != query.getSize() && null != query.getPage()) {PageHelper.startPage(query.getPage(), query.getSize()")
+                        .append(config.getSkipPageCount() ? ", false" : "").append("); }")
+                        .append("return new PageInfo<>(").append(daoFieldName).append(".query(query));}");
+            }
+
+            if (config.getCacheCount()) {
+                appendCachedCount(content, daoFieldName, serviceImports);
+            }
+
+            if (config.getSeekQuery()) {
+                appendSeekQuery(content, daoFieldName);
+            }
+
+            if (config.getDirectWrite()) {
+                content.append("\n").append(getCacheEvict(null));
+                appendDeleteByIds(content, daoFieldName);
+            }
+
+            boolean chunked = 0 < config.getBatchSize();
+            if (chunked) {
+                appendBatchAdd(content, daoFieldName);
+            }
+
+            if (config.getExcelFunc()) {
+                content.append("\nprivate List<ExcelColumn<").append(dtoName)
+                        .append(">> getExcelColumns(){return ExcelUtils.initColumnsFromClass(").append(dtoName).append(".class); }")
+                        .append("\n public Workbook downloadTemplate() { return ExcelUtils.createExcelGenerator(getExcelColumns()).getWorkbook();}");
+
+                if (config.getStreamUpload()) {
+                    appendStreamUpload(content, serviceImports);
+                } else {
+                    // 通过this保存时不经过代理，save上的缓存注解不会生效，在upload上清除所有缓存
+                    content.append("\n").append(getCacheEvict(null))
+                            .append(" public void upload(MultipartFile file) {ExcelUtils.createExcelReader(file, getExcelColumns(), ")
+                            .append(dtoName).append(".class).setErrorProcessor(sheet->{}).read(this::save); }");
+                }
+
+                if (config.getStreamDownload()) {
+                    appendStreamDownload(content, daoFieldName);
+                } else {
+                    content.append("\n@Override public Workbook download(").append(queryName).append(" query) {")
+                            .append(config.getLiteQuery() ? "query.setFullColumns(true); " : "").append("List<")
+                            .append(dtoName).append("> dataList = query(query); return ExcelUtils.createExcelGenerator(getExcelColumns(), dataList).getWorkbook();} ");
+                }
+            }
+        } else {
+            content.append("\n@Override public ")
+                    .append(queryName)
+                    .append(" createQuery() { return new ")
+                    .append(queryName)
+                    .append("();}\n");
+
+            // 游标分页查询及直接修改、删除时直接使用Dao，父类中没有对应的方法
+            String daoFieldName = StringUtils.uncapitalize(daoName);
+            if (config.getSeekQuery() || config.getDirectWrite() || config.getFindOneDto()) {
+                content.append("\n@Resource private ").append(daoName).append(" ").append(daoFieldName).append("; \n");
+            }
+
+            if (config.getSeekQuery()) {
+                appendSeekQuery(content, daoFieldName);
+            }
+
+            // 按主键查询时直接映射成DTO，修改、删除前的查询也使用此方法
+            if (config.getFindOneDto()) {
+                content.append("\n@Override @Transactional(readOnly = true) public Optional<").append(dtoName)
+                        .append("> findOne(Long id) { return Optional.ofNullable(").append(daoFieldName).append(".findDtoById(id)); }");
+            }
+
+            // 列表查询默认不查询大字段，下载时需要导出所有列
+            if (config.getExcelFunc() && config.getLiteQuery()) {
+                content.append("\n@Override public Workbook download(").append(queryName).append(" query) {")
+                        .append("query.setFullColumns(true); return super.download(query); }");
+            }
+
+            // 属性复制使用对象转换器
+            String mapperFieldName = StringUtils.uncapitalize(mapperName);
+            String copyUpdate = "LBeanUtils.copyNonNullProperties(update, dto);";
+            String createFromAdd = dtoName + " dto = new " + dtoName + "(); LBeanUtils.copyNonNullProperties(addDto, dto);";
+            if (config.getMapstructCopy()) {
+                content.append("\n@Resource private ").append(mapperName).append(" ").append(mapperFieldName).append("; \n");
+                copyUpdate = mapperFieldName + ".updateDto(update, dto);";
+                createFromAdd = dtoName + " dto = " + mapperFieldName + ".fromAddDto(addDto);";
+            }
+
+            // 直接修改、删除时由影响的记录数判断对象是否存在及是否有权限，不需要先查询
+            if (config.getDirectWrite()) {
+                appendDeleteByIds(content, daoFieldName);
+                String userId = config.getWithUserId() ? "userId" : "null";
+                String message = config.getWithUserId() ? "对象不存在或权限不足" : "对象不存在";
+                content.append("\n@Transactional public void update(")
+                        .append(config.getWithUserId() ? "Long userId, " : "")
+                        .append(dtoUpdateName).append(" update){ if (0 == ").append(daoFieldName)
+                        .append(".updateSelective(update, ").append(userId).append(")) { throw BusinessException.create(\"")
+                        .append(message).append("\"); } }\n");
+                if (config.getWithUserId()) {
+                    content.append("\n@Transactional public void delete(Long userId, Long id){ if (0 == ").append(daoFieldName)
+                            .append(".deleteById(id, userId)) { throw BusinessException.create(\"").append(message).append("\"); } }\n");
+                }
+
+                if (config.getWithDeleted()) {
+                    content.append("@Override @Transactional public void delete(Long id) {").append(daoFieldName)
+                            .append(".deleteById(id, null); }");
+                }
+            }
+
+            // 增加按用户删除、修改的接口
+            if (config.getWithUserId()) {
+                if (!config.getDirectWrite()) {
+                    content.append("\npublic void update(Long userId, ")
+                            .append(dtoUpdateName)
+                            .append(" update){ ")
+                            .append(dtoName).append(" dto = this.findOne(update.getId()).orElseThrow(() -> BusinessException.create(\"对象不存在\"));")
+                            .append("if (!dto.getUserId().equals(userId)) {throw BusinessException.create(\"权限不足\");}")
+                            .append(copyUpdate).append(" this.save(dto); }\n")
+                            // 删除
+                            .append("\npublic void delete(Long userId, Long id){")
+                            .append(dtoName).append(" dto = this.findOne(id).orElseThrow(() -> BusinessException.create(\"对象不存在\"));")
+                            .append("if (!dto.getUserId().equals(userId)) {throw BusinessException.create(\"权限不足\");}")
+                            .append("this.delete(id); }\n");
+                }
+
+                // 新增
+                content.append("\npublic ").append(dtoName).append(" add(Long userId, ")
+                        .append(dtoAddName).append(" addDto){")
+                        .append(createFromAdd).append("  dto.setUserId(userId);  return this.save(dto); }\n");
+            } else {
+                if (!config.getDirectWrite()) {
+                    content.append("\npublic void update(")
+                            .append(dtoUpdateName)
+                            .append(" update){ ")
+                            .append(dtoName).append(" dto = this.findOne(update.getId()).orElseThrow(() -> BusinessException.create(\"对象不存在\"));")
+                            .append(copyUpdate).append(" this.save(dto); }\n");
+                }
+
+                // 新增
+                content.append("\npublic ").append(dtoName).append(" add(")
+                        .append(dtoAddName).append(" addDto){")
+                        .append(createFromAdd).append(" return this.save(dto); }\n");
+            }
+
+            // 删除方法使用逻辑删除
+            if (config.getWithDeleted()) {
+                if (!config.getDirectWrite()) {
+                    content.append("@Override public void delete(Long id) {repository.findById(id).ifPresent(item -> {item.setDeleted(true); " +
+                            "repository.save(item); }); }");
+                }
+
+                content.append("@Override public ")
+                        .append(dtoName)
+                        .append(" save(")
+                        .append(dtoName)
+                        .append(" dto) {if (null == dto.getId()) { dto.setDeleted(false); ");
+
+                if (config.getWithCreateTime()) {
+                    content.append("dto.setCreateTime(LocalDateTime.now());dto.setUpdateTime(LocalDateTime.now()); ");
+                }
+
+                content.append(" } return super.save(dto); }");
+
+            } else if (config.getWithCreateTime()) {
+                content.append("@Override public ")
+                        .append(dtoName)
+                        .append(" save(")
+                        .append(dtoName)
+                        .append(" dto) {if (null == dto.getId()) { dto.setCreateTime(LocalDateTime.now()); }" +
+                                " return super.save(dto); }");
+            }
+        }
+
+
+        content.append("}");
+
+        ClassCreator creator = ClassCreator.of(psiUtils).init(serviceName, content.toString())
+                .importClass(entityClass)
+                .importClass("org.springframework.stereotype.Service")
+                .importClassIf("java.time.LocalDateTime", () -> config.getWithCreateTime())
+                .importClassIf(config.getSuperService(), () -> config.getWithSuper())
+                .importClass("BusinessException")
+                .importClassIf("LBeanUtils", () -> !config.getMapstructCopy())
+                .importQualifiedName(getQualifiedName("dto", dtoAddName))
+                .importQualifiedName(getQualifiedName("dto", dtoUpdateName))
+                .importClass("AbstractBaseEntityService")
+                .importClassIf("ExcelUtils", () -> config.getExcelFunc())
+                .importClassIf("Workbook", () -> config.getExcelFunc())
+                .importClassIf("ExcelColumn", () -> config.getExcelFunc())
+                .importClassIf("MultipartFile", () -> config.getExcelFunc())
+                .importClassIf("org.apache.ibatis.session.SqlSessionFactory", this::useSqlSessionFactory)
+                .importClassIf("org.apache.ibatis.session.SqlSession", this::useBatchExecutor)
+                .importClassIf("org.apache.ibatis.session.ExecutorType", this::useBatchExecutor)
+                .importClassIf("java.util.List", () -> config.getSeekQuery() || config.getDirectWrite())
+                .importQualifiedName(!config.getWithSuper() || config.getSeekQuery() || config.getDirectWrite()
+                        || config.getFindOneDto() ? getQualifiedName("dao", daoName) : null)
+                .importClassIf("java.util.Optional", () -> config.getWithSuper() && config.getFindOneDto())
+                .importClassIf("java.io.IOException", config::getStreamDownload)
+                .importClassIf("java.io.OutputStream", config::getStreamDownload)
+                .importClassIf("org.apache.ibatis.cursor.Cursor", config::getQueryCursor)
+                .importClassIf("org.apache.poi.ss.usermodel.Row", config::getStreamDownload)
+                .importClassIf("org.apache.poi.ss.usermodel.Sheet", config::getStreamDownload)
+                .importClassIf("org.apache.poi.xssf.streaming.SXSSFWorkbook", config::getStreamDownload)
+                .importQualifiedName(!config.getWithSuper() || config.getMapstructCopy() ? getQualifiedName("mapper", mapperName) : null)
+                .importQualifiedName(getQualifiedName("repository", repositoryName))
+                .importQualifiedName(getQualifiedName("dto", dtoName))
+                .importQualifiedName(getQualifiedName("query", queryName));
+        serviceImports.forEach(creator::importQualifiedName);
+        addClass(creator, "service");
+    }
+
+    /**
+     * 增加以游标逐条处理查询结果的方法
+     * forEach在方法内打开并关闭游标；stream返回的流在调用方的事务中使用，使用完后需要关闭
+     */
+    private void appendStreamQuery(StringBuilder content, String daoFieldName, Set<String> imports) {
+        content.append("\n @Transactional(readOnly = true) public void forEach(").append(queryName).append(" query, Consumer<")
+                .append(dtoName).append("> consumer) {")
+                .append("try (Cursor<").append(dtoName).append("> cursor = ").append(daoFieldName).append(".queryCursor(query)) {")
+                .append("cursor.forEach(consumer); } catch (IOException e) { throw new UncheckedIOException(e); } }")
+                .append("\n @Transactional(readOnly = true, propagation = Propagation.MANDATORY) public Stream<").append(dtoName)
+                .append("> stream(").append(queryName).append(" query) {")
+                .append("Cursor<").append(dtoName).append("> cursor = ").append(daoFieldName).append(".queryCursor(query);")
+                .append("return StreamSupport.stream(cursor.spliterator(), false).onClose(() -> {")
+                .append("try { cursor.close(); } catch (IOException e) { throw new UncheckedIOException(e); } }); }");
+        imports.addAll(Arrays.asList("java.io.IOException", "java.io.UncheckedIOException", "java.util.function.Consumer",
+                "java.util.stream.Stream", "java.util.stream.StreamSupport", "org.apache.ibatis.cursor.Cursor",
+                "org.springframework.transaction.annotation.Propagation"));
+    }
+
+    /**
+     * 增加缓存名称常量，并在公共缓存配置不存在时生成
+     * findOne按主键缓存单条记录，findAll的结果单独缓存，以便只新增记录时不需要清理单条记录的缓存
+     */
+    private void appendCacheNames(StringBuilder content, Set<String> imports) {
+        if (!psiUtils.findClass("CacheConfiguration").isPresent()) {
+            createCacheConfiguration();
+        }
+
+        content.append("\n private static final String CACHE_NAME = \"").append(entityName).append("\";\n")
+                .append("\n private static final String ALL_CACHE_NAME = \"").append(entityName).append(":all\";\n");
+        imports.addAll(Arrays.asList("org.springframework.cache.annotation.CacheEvict",
+                "org.springframework.cache.annotation.Cacheable", "org.springframework.cache.annotation.Caching"));
+    }
+
+    /**
+     * 生成公共缓存配置
+     * 使用Caffeine作为Spring Cache的实现，按记录数及写入时间淘汰；每个缓存创建时注册到Micrometer中，输出命中率等指标
+     */
+    private void createCacheConfiguration() {
+        String content = "/**\n * 缓存配置\n * 缓存使用Caffeine，按记录数及写入时间淘汰，并记录命中率\n **/" +
+                "\n@Configuration @EnableCaching public class CacheConfiguration {" +
+                "\n@Bean public CacheManager cacheManager(ObjectProvider<MeterRegistry> meterRegistry) {" +
+                "CaffeineCacheManager cacheManager = new CaffeineCacheManager() {" +
+                "@Override protected org.springframework.cache.Cache createCaffeineCache(String name) {" +
+                "org.springframework.cache.Cache cache = super.createCaffeineCache(name);" +
+                "meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, " +
+                "(Cache<?, ?>) cache.getNativeCache(), name));" +
+                "return cache; } };" +
+                "cacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(" + config.getCacheSize() + ")" +
+                ".expireAfterWrite(" + config.getCacheSeconds() + ", TimeUnit.SECONDS).recordStats());" +
+                "return cacheManager; } }";
+
+        ClassCreator creator = ClassCreator.of(psiUtils).init("CacheConfiguration", content);
+        Arrays.asList("java.util.concurrent.TimeUnit", "com.github.benmanes.caffeine.cache.Cache",
+                "com.github.benmanes.caffeine.cache.Caffeine", "io.micrometer.core.instrument.MeterRegistry",
+                "io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics",
+                "org.springframework.beans.factory.ObjectProvider", "org.springframework.cache.CacheManager",
+                "org.springframework.cache.annotation.EnableCaching", "org.springframework.cache.caffeine.CaffeineCacheManager",
+                "org.springframework.context.annotation.Bean", "org.springframework.context.annotation.Configuration")
+                .forEach(creator::importQualifiedName);
+        addClass(creator, "config");
+    }
+
+    /**
+     * 获取写操作上清理缓存的注解，未启用缓存时返回空字符串
+     *
+     * @param keyExpression 被修改记录的主键表达式，为null时清理所有单条记录的缓存
+     * @return 同时清理单条记录及findAll缓存的注解
+     */
+    private String getCacheEvict(String keyExpression) {
+        if (!useCache()) {
+            return "";
+        }
+
+        String evictOne = null == keyExpression ? "@CacheEvict(cacheNames = CACHE_NAME, allEntries = true)"
+                : "@CacheEvict(cacheNames = CACHE_NAME, key = \"" + keyExpression + "\", condition = \"null != " + keyExpression + "\")";
+        return "@Caching(evict = {" + evictOne + ", " + ALL_CACHE_EVICT + "})";
+    }
+
+    /**
+     * 增加按主键批量删除的方法，一条语句删除所有记录；有userId属性时只删除该用户的记录
+     */
+    private void appendDeleteByIds(StringBuilder content, String daoFieldName) {
+        content.append(" @Transactional public void deleteByIds(")
+                .append(config.getWithUserId() ? "Long userId, " : "")
+                .append("List<Long> ids) { if (null != ids && !ids.isEmpty()) { ").append(daoFieldName)
+                .append(".deleteByIds(ids, ").append(config.getWithUserId() ? "userId" : "null").append("); } }");
+    }
+
+    /**
+     * 服务类中是否缓存findOne及findAll的结果
+     */
+    private boolean useCache() {
+        return !config.getWithSuper() && config.getServiceCache();
+    }
+
+    /**
+     * 增加流式上传的方法
+     * 通过公共读取器逐行读取，每行转换并校验后放入当前批次，校验失败的行记录错误后继续读取；
+     * 批次记录数达到配置值时在单独的事务中通过JPA批量保存，由JPA生成主键，返回所有行的错误信息
+     *
+     * @param imports 需要额外导入的类
+     */
+    private void appendStreamUpload(StringBuilder content, Set<String> imports) {
+        // 公共读取器不存在时先生成
+        imports.add(psiUtils.findClass(ExcelUploadRenderer.READER_NAME)
+                .map(PsiClass::getQualifiedName)
+                .orElseGet(() -> {
+                    ClassCreator creator = ClassCreator.of(psiUtils).init(ExcelUploadRenderer.READER_NAME,
+                            ExcelUploadRenderer.renderReader());
+                    ExcelUploadRenderer.READER_IMPORTS.forEach(creator::importQualifiedName);
+                    addClass(creator, "service");
+                    return getQualifiedName("service", ExcelUploadRenderer.READER_NAME);
+                }));
+
+        imports.addAll(Arrays.asList("java.io.IOException", "java.io.InputStream", "java.util.ArrayList",
+                "java.util.List", "java.util.Map", "java.util.Set", "java.util.stream.Collectors",
+                "javax.validation.ConstraintViolation", "javax.validation.Validator",
+                "org.springframework.transaction.support.TransactionTemplate"));
+
+        content.append("\n private static final int UPLOAD_BATCH_SIZE = ").append(config.getExcelUploadBatch()).append(";\n")
+                .append("\n@Resource private Validator validator; \n")
+                .append("\n@Resource private TransactionTemplate transactionTemplate; \n")
+                .append("\n").append(getCacheEvict(null))
+                .append(" public List<String> upload(MultipartFile file) {")
+                .append("List<String> errors = new ArrayList<>(); List<").append(dtoName)
+                .append("> batch = new ArrayList<>(UPLOAD_BATCH_SIZE);")
+                .append("try (InputStream inputStream = file.getInputStream()) {")
+                .append(ExcelUploadRenderer.READER_NAME).append(".read(inputStream, (rowNum, row) -> {")
+                .append(dtoName).append(" dto;")
+                .append("try { dto = toUploadDto(row); } catch (RuntimeException e) { errors.add(\"第\" + (rowNum + 1) + \"行：\" + e.getMessage()); return; }")
+                .append("Set<ConstraintViolation<").append(dtoName).append(">> violations = validator.validate(dto);")
+                .append("if (!violations.isEmpty()) { errors.add(\"第\" + (rowNum + 1) + \"行：\" + violations.stream()")
+                .append(".map(ConstraintViolation::getMessage).collect(Collectors.joining(\"，\"))); return; }")
+                .append("batch.add(dto); if (batch.size() >= UPLOAD_BATCH_SIZE) { saveUploadBatch(batch); batch.clear(); } });")
+                .append("} catch (IOException e) { throw BusinessException.create(\"读取上传文件失败\"); }")
+                .append("if (!batch.isEmpty()) { saveUploadBatch(batch); } return errors; }")
+                .append("\n private void saveUploadBatch(List<").append(dtoName).append("> batch) {")
+                .append("transactionTemplate.execute(status -> { save(batch); return null; }); }")
+                .append(ExcelUploadRenderer.renderConverter(model, dtoName, DtoRenderer.getFieldNames(model, ""), imports));
+    }
+
+    /**
+     * 增加流式下载的方法
+     * 通过游标逐行读取，使用SXSSF只在内存中保留固定行数，其余行写入临时文件，最后直接写到输出流中；
+     * 表头及各列的取值在生成时根据DTO属性确定，不需要在运行时读取ExcelColumn
+     */
+    private void appendStreamDownload(StringBuilder content, String daoFieldName) {
+        List<String> fieldNames = DtoRenderer.getFieldNames(model, "");
+        StringBuilder header = new StringBuilder();
+        StringBuilder cells = new StringBuilder();
+        int index = 0;
+        for (FieldModel field : model.getFields()) {
+            if (!fieldNames.contains(field.getName())) {
+                continue;
+            }
+
+            String title = ExcelUploadRenderer.getTitle(field).replace("\"", "\\\"");
+            header.append("header.createCell(").append(index).append(").setCellValue(\"").append(title).append("\");");
+            cells.append("row.createCell(").append(index).append(").setCellValue(toCellValue(dto.get")
+                    .append(StringUtils.capitalize(field.getName())).append("()));");
+            index++;
+        }
+
+        content.append("\n @Transactional(readOnly = true) public void download(").append(queryName)
+                .append(" query, OutputStream outputStream) throws IOException {")
+                .append("SXSSFWorkbook workbook = new SXSSFWorkbook(").append(config.getExcelStreamWindow()).append(");")
+                .append("try (Cursor<").append(dtoName).append("> cursor = ").append(daoFieldName).append(".queryCursor(query)) {")
+                .append("Sheet sheet = workbook.createSheet(); Row header = sheet.createRow(0);")
+                .append(header)
+                .append("int rowIndex = 1; for (").append(dtoName).append(" dto : cursor) { Row row = sheet.createRow(rowIndex++);")
+                .append(cells)
+                .append("} workbook.write(outputStream); } finally { workbook.dispose(); } }")
+                .append("\n private static String toCellValue(Object value) { return null == value ? \"\" : String.valueOf(value); }");
+    }
+
+    /**
+     * 增加带缓存的统计方法
+     * 以count语句绑定后的SQL及各参数值作为Key，参数值与MyBatis执行时的取值方式一致，不包含分页参数；
+     * 映射文件中增加查询条件后Key自动包含新的条件；缓存使用Caffeine，按记录数及写入时间淘汰，分页查询及count接口共用
+     */
+    private void appendCachedCount(StringBuilder content, String daoFieldName, Set<String> imports) {
+        content.append("\n private static final long COUNT_TTL_SECONDS = ").append(config.getCountCacheSeconds()).append("L;\n")
+                .append("\n private static final int COUNT_CACHE_SIZE = 1000;\n")
+                .append("\n private final Cache<List<Object>, Long> countCache = Caffeine.newBuilder().maximumSize(COUNT_CACHE_SIZE)")
+                .append(".expireAfterWrite(COUNT_TTL_SECONDS, TimeUnit.SECONDS).build();\n")
+                .append("\n @Transactional(readOnly = true) public Long count(").append(queryName).append(" query) {")
+                .append("Configuration configuration = sqlSessionFactory.getConfiguration();")
+                .append("BoundSql boundSql = configuration.getMappedStatement(").append(daoName)
+                .append(".class.getName() + \".count\").getBoundSql(query);")
+                .append("MetaObject metaObject = configuration.newMetaObject(query);")
+                .append("List<Object> key = new ArrayList<>(boundSql.getParameterMappings().size() + 1); key.add(boundSql.getSql());")
+                .append("for (ParameterMapping mapping : boundSql.getParameterMappings()) { String property = mapping.getProperty();")
+                .append("key.add(boundSql.hasAdditionalParameter(property) ? boundSql.getAdditionalParameter(property) ")
+                .append(": metaObject.getValue(property)); }")
+                .append("return countCache.get(key, k -> ").append(daoFieldName).append(".count(query)); }");
+        imports.addAll(Arrays.asList("com.github.benmanes.caffeine.cache.Cache", "com.github.benmanes.caffeine.cache.Caffeine",
+                "org.apache.ibatis.mapping.BoundSql", "org.apache.ibatis.mapping.ParameterMapping",
+                "org.apache.ibatis.reflection.MetaObject", "org.apache.ibatis.session.Configuration",
+                "java.util.ArrayList", "java.util.List", "java.util.concurrent.TimeUnit"));
+    }
+
+    /**
+     * 增加直接使用分页参数的分页查询
+     * 分页参数作为查询条件传给pageQuery语句，不通过PageHelper的ThreadLocal传递，在虚拟线程中执行时不依赖线程状态；
+     * 页码及每页记录数都未指定时不分页；只指定其中一个或者小于1时使用默认值，计算偏移量前先修正到查询对象中；
+     * 结果放入PageHelper的Page中并设置总数后再包装成PageInfo，页数、是否最后一页等属性由PageInfo计算；
+     * 统计方式与PageHelper分页时一致，不统计时总数为-1
+     */
+    private void appendExplicitPageQuery(StringBuilder content, String daoFieldName, Set<String> imports) {
+        content.append("if (null == query.getSize() && null == query.getPage()) { return new PageInfo<>(").append(daoFieldName)
+                .append(".query(query)); }")
+                .append("int pageNum = null == query.getPage() || query.getPage() < 1 ? 1 : query.getPage();")
+                .append("int pageSize = null == query.getSize() || query.getSize() < 1 ? DEFAULT_PAGE_SIZE : query.getSize();")
+                .append("query.setPage(pageNum); query.setSize(pageSize);")
+                .append("Page<").append(dtoName).append("> page = new Page<>(pageNum, pageSize);")
+                .append("page.addAll(").append(daoFieldName).append(".pageQuery(query));");
+        if (!config.getSkipPageCount() || config.getCacheCount()) {
+            content.append("page.setTotal(").append(config.getCacheCount() ? "count(query)" : daoFieldName + ".count(query)").append(");");
+        } else {
+            content.append("page.setTotal(-1);");
+        }
+
+        content.append("return new PageInfo<>(page); }")
+                .append("\n private static final int DEFAULT_PAGE_SIZE = 20;\n");
+        imports.add("com.github.pagehelper.Page");
+    }
+
+    /**
+     * 增加游标分页查询的方法
+     */
+    private void appendSeekQuery(StringBuilder content, String daoFieldName) {
+        content.append("\n @Transactional(readOnly = true) public List<").append(dtoName).append("> seekQuery(")
+                .append(queryName).append(" query) { return ").append(daoFieldName).append(".seekQuery(query);}");
+    }
+
+    /**
+     * 服务类中是否需要注入SqlSessionFactory，BATCH执行器及缓存统计结果时使用
+     */
+    private boolean useSqlSessionFactory() {
+        return useBatchExecutor() || (!config.getWithSuper() && config.getCacheCount());
+    }
+
+    /**
+     * 服务类中是否使用BATCH执行器进行分批新增
+     */
+    private boolean useBatchExecutor() {
+        return !config.getWithSuper() && 0 < config.getBatchSize() && config.getBatchExecutor();
+    }
+
+    /**
+     * 增加分批新增的方法
+     * 每批按配置的记录数调用一次batchAdd，避免导入大量数据时生成过长的SQL；
+     * 使用BATCH执行器时在同一个SqlSession中逐条插入，每批提交一次语句；
+     * 插入语句包含主键且不会设置deleted、createTime等默认值，只用于显式调用，Excel上传仍通过JPA保存
+     */
+    private void appendBatchAdd(StringBuilder content, String daoFieldName) {
+        content.append("\n private static final int BATCH_SIZE = ").append(config.getBatchSize()).append(";\n");
+
+        if (config.getBatchExecutor()) {
+            content.append("\n").append(getCacheEvict(null))
+                    .append(" @Transactional public void batchAdd(List<").append(dtoName).append("> dataList) {")
+                    .append("try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {")
+                    .append(daoName).append(" batchDao = session.getMapper(").append(daoName).append(".class);")
+                    .append("int count = 0; for (").append(dtoName).append(" dto : dataList) { batchDao.add(dto);")
+                    .append("if (++count % BATCH_SIZE == 0) { session.flushStatements(); } }")
+                    .append("session.flushStatements(); session.commit(); } }");
+        } else {
+            content.append("\n").append(getCacheEvict(null))
+                    .append(" @Transactional public void batchAdd(List<").append(dtoName).append("> dataList) {")
+                    .append("for (int i = 0; i < dataList.size(); i += BATCH_SIZE) {")
+                    .append(daoFieldName).append(".batchAdd(dataList.subList(i, Math.min(i + BATCH_SIZE, dataList.size()))); } }");
+        }
+    }
+
+    /**
+     * 创建控制器
+     */
+    private void createController() {
+        // 判断是否要加API的注解
+        Optional<PsiClass> apiClass = psiUtils.findClass("io.swagger.annotations.Api");
+        boolean useAPI = apiClass.isPresent();
+
+        String content = ControllerRenderer.render(model, config, useAPI);
+
+        // 在controller目录下创建Controller
+        addClass(ClassCreator.of(psiUtils)
+                .init(controllerName, content)
+                .importClass("javax.annotation.Resource")
+                .importClass("org.springframework.web.bind.annotation.RequestMaping")
+                .importClass("org.springframework.web.bind.annotation.PostMapping")
+                .importClass("GetMapping")
+                .importClass("DeleteMapping")
+                .importClass("RequestBody")
+                .importClass("io.swagger.annotations.Api")
+                .importClass("io.swagger.annotations.ApiOperation")
+                .importClass("PathVariable")
+                .importClass("RequestParam")
+                .importQualifiedName(getQualifiedName("dto", dtoAddName))
+                .importQualifiedName(getQualifiedName("dto", dtoUpdateName))
+                .importClassIf("AuthUser", config::getWithUserId)
+                .importClassIf("SecurityUtils", config::getWithUserId)
+                .importClassIf("LogoutException", config::getWithUserId)
+                .importClass("com.github.pagehelper.PageInfo")
+                .importClassIf("HttpServletResponse", () -> config.getExcelFunc())
+                .importClassIf("ExcelUtils", () -> config.getExcelFunc())
+                .importClassIf("MultipartFile", () -> config.getExcelFunc())
+                .importClassIf("java.util.List", () -> config.getSeekQuery() || config.getStreamUpload() || config.getDirectWrite())
+                .importClassIf("java.io.IOException", config::getStreamDownload)
+                .importQualifiedName(getQualifiedName("dto", dtoName))
+                .importQualifiedName(getQualifiedName("service", serviceName))
+                .importQualifiedName(getQualifiedName("query", queryName)), "web");
+    }
+
+    /**
+     * 创建响应式代码：R2DBC映射对象、Repository、对象转换器、服务类及WebFlux控制器
+     */
+    private void createReactiveClasses() {
+        String rowName = ReactiveRenderer.getRowName(model);
+        String rowMapperName = ReactiveRenderer.getRowMapperName(model);
+
+        Set<String> rowImports = new LinkedHashSet<>(ReactiveRenderer.ROW_IMPORTS);
+        String rowContent = ReactiveRenderer.renderRow(model, rowImports);
+        ClassCreator rowCreator = ClassCreator.of(psiUtils).init(rowName, rowContent);
+        rowImports.forEach(rowCreator::importQualifiedName);
+        addClass(rowCreator, "row");
+
+        ClassCreator repositoryCreator = ClassCreator.of(psiUtils).init(repositoryName,
+                ReactiveRenderer.renderRepository(model, config))
+                .importQualifiedName(getQualifiedName("row", rowName));
+        ReactiveRenderer.REPOSITORY_IMPORTS.forEach(repositoryCreator::importQualifiedName);
+        addClass(repositoryCreator, "repository");
+
+        Set<String> mapperImports = new LinkedHashSet<>(ReactiveRenderer.ROW_MAPPER_IMPORTS);
+        String mapperContent = ReactiveRenderer.renderRowMapper(model, mapperImports);
+        ClassCreator mapperCreator = ClassCreator.of(psiUtils).init(rowMapperName, mapperContent)
+                .importQualifiedName(getQualifiedName("row", rowName))
+                .importQualifiedName(getQualifiedName("dto", dtoName))
+                .importQualifiedName(getQualifiedName("dto", dtoAddName))
+                .importQualifiedName(getQualifiedName("dto", dtoUpdateName));
+        mapperImports.forEach(mapperCreator::importQualifiedName);
+        addClass(mapperCreator, "mapper");
+
+        Set<String> serviceImports = new LinkedHashSet<>(ReactiveRenderer.SERVICE_IMPORTS);
+        String serviceContent = ReactiveRenderer.renderService(model, config, serviceImports);
+        ClassCreator serviceCreator = ClassCreator.of(psiUtils).init(serviceName, serviceContent)
+                .importClass("BusinessException")
+                .importQualifiedName(getQualifiedName("row", rowName))
+                .importQualifiedName(getQualifiedName("mapper", rowMapperName))
+                .importQualifiedName(getQualifiedName("repository", repositoryName))
+                .importQualifiedName(getQualifiedName("dto", dtoName))
+                .importQualifiedName(getQualifiedName("dto", dtoAddName))
+                .importQualifiedName(getQualifiedName("dto", dtoUpdateName));
+        serviceImports.forEach(serviceCreator::importQualifiedName);
+        addClass(serviceCreator, "service");
+
+        boolean useAPI = psiUtils.findClass("io.swagger.annotations.Api").isPresent();
+        ClassCreator controllerCreator = ClassCreator.of(psiUtils).init(controllerName,
+                ReactiveRenderer.renderController(model, config, useAPI))
+                .importQualifiedName(getQualifiedName("service", serviceName))
+                .importQualifiedName(getQualifiedName("dto", dtoName))
+                .importQualifiedName(getQualifiedName("dto", dtoAddName))
+                .importQualifiedName(getQualifiedName("dto", dtoUpdateName));
+        ReactiveRenderer.getControllerImports(useAPI).forEach(controllerCreator::importQualifiedName);
+        addClass(controllerCreator, "web");
+    }
+
+    /**
+     * 创建前端管理页面
+     */
+    private void createPage() {
+        if (config.getWithPage()) {
+            String url = ControllerRenderer.getRequestPath(entityName, config.getControllerPrefix());
+
+            // 前端页面使用entityDataTable
+            String mainClass = ControllerRenderer.getControllerPath(entityName);
+            StringBuilder content = new StringBuilder("<template>\n" +
+                    "<!--" + comment.getText() + "管理-->\n" +
+                    "    <div class='" + mainClass + "'>\n" +
+                    "        <entity-data-table\n" +
+                    "            :additionalQueryParams=\"queryParams\"\n" +
+                    "            :urlPrefix=\"urlPrefix\"\n" +
+                    "            :queryFlag=\"queryFlag\"\n" +
+                    "            :columns=\"tableColumns\"\n" +
+                    "            :lazyLoad=\"true\"\n" +
+                    "        >\n" +
+                    "            <template slot=\"searchBar\">\n" +
+                    "            </template>\n" +
+                    "        </entity-data-table>\n" +
+                    "    </div>\n" +
+                    "</template>\n" +
+                    "\n" +
+                    "<script>\n" +
+                    "import entityDataTable from \"../../components/EntityDataTable\";\n" +
+                    "\n" +
+                    "export default {\n" +
+                    "    name: \"App\",\n" +
+                    "    watch: {},\n" +
+                    "    components: { entityDataTable },\n" +
+                    "    data() {\n" +
+                    "        return {\n" +
+                    "            urlPrefix: \"" + url + "\",\n" +
+                    "\n" +
+                    "            // 表格列信息\n" +
+                    "            tableColumns: [\n" +
+                    "                { field: \"id\", title: \"编号\", width: \"60px\", needAdd: false },\n");
+
+            // 补充字段信息
+            for (FieldModel field : model.getFields()) {
+                if (field.getName().equals("id")) {
+                    continue;
+                }
+
+                content.append("                {\n                    field: \"").append(field.getName()).append("\",\n");
+
+                String tableType = "text";
+                if ("boolean".equals(field.getTypeName())) {
+                    tableType = "checkbox";
+                } else if ("int".equals(field.getTypeName()) || "long".equals(field.getTypeName())) {
+                    tableType = "number";
+                }
+
+                content.append("                    type: \"").append(tableType).append("\", \n");
+
+                // 通过columnDefinition中的列注释获取字段的中文名称
+                String title = StringUtils.defaultString(field.getComment());
+
+                content.append(
+                        "                    title: \"" + title + "\",\n" +
+                                "                    width: \"120px\",\n" +
+                                "                    required: true,\n" +
+                                "                    editable: true,\n" +
+                                "                    needAdd: true,\n" +
+                                "                    options: [],\n" +
+                                "                    dialogType: \"text\",\n" +
+                                "                },\n");
+            }
+
+            content.append(
+                    "                {\n" +
+                            "                    field: \"operations\",\n" +
+                            "                    type: \"operations\",\n" +
+                            "                    title: \"操作\",\n" +
+                            "                    width: \"120px\"\n" +
+                            "                }\n" +
+                            "            ],\n" +
+                            "\n" +
+                            "            queryParams: {\n" +
+                            "            },\n" +
+                            "            queryFlag: 0\n" +
+                            "        };\n" +
+                            "    },\n" +
+                            "\n" +
+                            "    mounted() {\n" +
+                            "        this.queryFlag++;\n" +
+                            "    },\n" +
+                            "\n" +
+                            "    methods: {}\n" +
+                            "};\n" +
+                            "</script>\n" +
+                            "\n" +
+                            "<style lang=\"scss\">\n" +
+                            "." + mainClass + "{\n}" +
+                            "</style>\n" +
+                            "\n");
+
+            PsiDirectory resourceDirectory = psiUtils.getResourceDirectory();
+            String fileName = entityName + ".vue";
+            if (!GeneratedFile.exists(resourceDirectory, "pages", fileName)) {
+                files.add(GeneratedFile.of(resourceDirectory, "pages", PsiFileFactory.getInstance(project)
+                        .createFileFromText(fileName, FileTypes.PLAIN_TEXT, content.toString())));
+            }
+        }
+    }
+
+    /**
+     * 创建索引的SQL脚本
+     * 放在resources目录下的db/index目录中，以表名命名，已存在时不做处理；
+     * 列名从实体信息中获取，包括父类中的属性
+     */
+    private void createIndexScript() {
+        if (!config.getWithIndex()) {
+            return;
+        }
+
+        Map<String, String> columns = new HashMap<>(16);
+        model.getAllFields().forEach(field -> columns.put(field.getName(), field.getColumnName()));
+        List<List<String>> indexes = TableIndexes.suggest(columns);
+        String tableName = model.getTableName();
+        PsiDirectory resourceDirectory = psiUtils.getResourceDirectory();
+        String fileName = tableName + ".sql";
+        if (indexes.isEmpty() || GeneratedFile.exists(resourceDirectory, "db/index", fileName)) {
+            return;
+        }
+
+        String content = "-- " + StringUtils.defaultString(model.getComment().getText()) + "表索引，按生成的查询默认使用的条件及排序字段建立，可加入数据库迁移脚本中执行\n"
+                + TableIndexes.toSql(tableName, indexes);
+        files.add(GeneratedFile.of(resourceDirectory, "db/index", PsiFileFactory.getInstance(project)
+                .createFileFromText(fileName, FileTypes.PLAIN_TEXT, content)));
+    }
+
+    /**
+     * 生成公共虚拟线程配置，已存在时不做处理；项目中没有TomcatProtocolHandlerCustomizer（Spring Boot 2.2以下）时不生成并提示
+     * Tomcat处理请求及Spring的异步任务都使用虚拟线程执行，需要Java 21
+     */
+    private void createVirtualThreadConfiguration() {
+        if (!config.getVirtualThreads() || psiUtils.findClass("VirtualThreadConfiguration").isPresent()) {
+            return;
+        }
+
+        // 配置中使用的TomcatProtocolHandlerCustomizer从Spring Boot 2.2开始提供，项目中没有时不生成
+        if (!psiUtils.findClass(TOMCAT_CUSTOMIZER).isPresent()) {
+            String message = "项目中没有" + TOMCAT_CUSTOMIZER + "（需要Spring Boot 2.2及以上），未生成VirtualThreadConfiguration，"
+                    + "thread.virtual配置只对分页查询生效";
+            LOG.warn(message);
+            if (null == project.getUserData(VIRTUAL_THREAD_WARNED)) {
+                project.putUserData(VIRTUAL_THREAD_WARNED, true);
+                Notifications.Bus.notify(new Notification("EntityCodeGenerator", "虚拟线程配置未生成", message,
+                        NotificationType.WARNING), project);
+            }
+
+            return;
+        }
+
+        String content = "/**\n * 虚拟线程配置\n * 请求及异步任务都在虚拟线程中执行，阻塞时不占用平台线程，需要Java 21\n **/" +
+                "\n@Configuration public class VirtualThreadConfiguration {" +
+                "\n@Bean public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {" +
+                "return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor()); }" +
+                "\n@Bean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) public AsyncTaskExecutor applicationTaskExecutor() {" +
+                "return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor()); } }";
+
+        ClassCreator creator = ClassCreator.of(psiUtils).init("VirtualThreadConfiguration", content);
+        Arrays.asList("java.util.concurrent.Executors",
+                "org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration",
+                TOMCAT_CUSTOMIZER, "org.springframework.context.annotation.Bean", "org.springframework.context.annotation.Configuration",
+                "org.springframework.core.task.AsyncTaskExecutor", "org.springframework.core.task.support.TaskExecutorAdapter")
+                .forEach(creator::importQualifiedName);
+        addClass(creator, "config");
+    }
+
+    /**
+     * 创建分页查询的压测脚本
+     * 放在模块根目录下的loadtest目录中，不在资源目录中，不会打包进应用；已存在时不做处理
+     */
+    private void createLoadTestScript() {
+        if (!config.getVirtualThreads()) {
+            return;
+        }
+
+        PsiDirectory moduleDirectory = psiUtils.getModuleDirectory();
+        String fileName = LoadTestRenderer.getFileName(model);
+        if (GeneratedFile.exists(moduleDirectory, "loadtest", fileName)) {
+            return;
+        }
+
+        files.add(GeneratedFile.of(moduleDirectory, "loadtest", PsiFileFactory.getInstance(project)
+                .createFileFromText(fileName, FileTypes.PLAIN_TEXT, LoadTestRenderer.render(model, config))));
+    }
+
+    /**
+     * 创建Hibernate批量写入的配置文件
+     * 放在resources目录下，作为jpa-batch配置启用，已存在时不做处理；
+     * 自增主键无法批量插入，实体主键需要使用序列或主键表，见entity.id.generator配置
+     */
+    private void createJpaBatchConfig() {
+        if (0 >= config.getJpaBatchSize()) {
+            return;
+        }
+
+        PsiDirectory resourceDirectory = psiUtils.getResourceDirectory();
+        String fileName = "application-jpa-batch.properties";
+        if (GeneratedFile.exists(resourceDirectory, "", fileName)) {
+            return;
+        }
+
+        String content = "# JPA批量写入配置，在application.properties中增加spring.profiles.include=jpa-batch后生效\n" +
+                "spring.jpa.properties.hibernate.jdbc.batch_size=" + config.getJpaBatchSize() + "\n" +
+                "spring.jpa.properties.hibernate.order_inserts=true\n" +
+                "spring.jpa.properties.hibernate.order_updates=true\n" +
+                "spring.jpa.properties.hibernate.jdbc.batch_versioned_data=true\n";
+        files.add(GeneratedFile.of(resourceDirectory, "", PsiFileFactory.getInstance(project)
+                .createFileFromText(fileName, FileTypes.PLAIN_TEXT, content)));
+    }
+
+    /**
+     * 获取BaseRepository，如果没有这个类则创建一个
+     *
+     * @return BaseRepository的类全名
+     */
+    private String getBaseRepositoryClass() {
+        // 如果已经有了，则直接使用这个作为父类
+        Optional<PsiClass> baseRepositoryClassOptional = psiUtils.findClass("BaseRepository");
+        if (baseRepositoryClassOptional.isPresent()) {
+            return baseRepositoryClassOptional.get().getQualifiedName();
+        }
+
+        // 如果没找到BaseRepository，则创建一个
+        addClass(ClassCreator.of(psiUtils).init("BaseRepository",
+                "@NoRepositoryBean public interface BaseRepository<E> extends JpaRepository<E, Long>, JpaSpecificationExecutor<E> {}")
+                .importClass("NoRepositoryBean")
+                .importClass("JpaRepository")
+                .importClass("JpaSpecificationExecutor"), "repository");
+        return getQualifiedName("repository", "BaseRepository");
+    }
+}
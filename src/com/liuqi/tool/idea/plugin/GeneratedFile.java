@@ -0,0 +1,212 @@
+package com.liuqi.tool.idea.plugin;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 已生成但还未写入的文件
+ * 生成阶段只在读操作中生成并格式化文件内容，文件需要放置的目录可能还不存在，
+ * 因此只记录根目录及相对路径，在写操作中再创建目录并添加文件。
+ *
+ * @author LiuQi 2020/6/10-9:20
+ * @version V1.0
+ **/
+final class GeneratedFile {
+    private final PsiDirectory root;
+    private final String path;
+    private final PsiFile file;
+
+    /**
+     * 增量生成时需要更新的已存在文件，为空时表示新增文件
+     */
+    private final PsiFile existing;
+
+    private GeneratedFile(PsiDirectory root, String path, PsiFile file, PsiFile existing) {
+        this.root = root;
+        this.path = path;
+        this.file = file;
+        this.existing = existing;
+    }
+
+    /**
+     * @param root 根目录，如实体所在目录的上两级目录或者资源目录
+     * @param path 相对于根目录的路径，多级目录以/分隔，为空时直接放在根目录下
+     * @param file 未添加到任何目录中的文件
+     */
+    static GeneratedFile of(PsiDirectory root, String path, PsiFile file) {
+        return new GeneratedFile(root, path, file, null);
+    }
+
+    /**
+     * 增量生成时使用新生成的文件更新已存在的文件，见{@link IncrementalPatcher}
+     *
+     * @param existing 已存在的文件
+     * @param file     新生成的文件，未添加到任何目录中
+     */
+    static GeneratedFile patch(PsiFile existing, PsiFile file) {
+        return new GeneratedFile(null, null, file, existing);
+    }
+
+    /**
+     * 查找根目录下的相对路径中的文件，不会创建任何目录
+     *
+     * @param root     根目录
+     * @param path     相对路径
+     * @param fileName 文件名称
+     * @return 文件不存在时返回null
+     */
+    static PsiFile find(PsiDirectory root, String path, String fileName) {
+        PsiDirectory directory = root;
+        for (String name : path.split("/")) {
+            if (name.isEmpty()) {
+                continue;
+            }
+
+            directory = directory.findSubdirectory(name);
+            if (null == directory) {
+                return null;
+            }
+        }
+
+        return directory.findFile(fileName);
+    }
+
+    /**
+     * 判断根目录下的相对路径中是否已经存在指定文件，不会创建任何目录
+     *
+     * @param root     根目录
+     * @param path     相对路径
+     * @param fileName 文件名称
+     * @return 存在时返回true
+     */
+    static boolean exists(PsiDirectory root, String path, String fileName) {
+        return null != find(root, path, fileName);
+    }
+
+    String getName() {
+        return file.getName();
+    }
+
+    /**
+     * 将文件添加到目录中，目录不存在时进行创建，需要在写操作中执行
+     * 文件在生成后可能已被其它实体的生成过程创建（如BaseRepository等公共类），此时不再重复添加
+     *
+     * 增量生成时只更新已存在文件中的部分内容，更新前记录文件的原始内容，回滚时恢复
+     *
+     * @param created 记录本次创建的目录及文件，用于回滚
+     * @param patched 记录本次更新的文件及其更新前的内容，用于回滚
+     */
+    private void write(List<PsiElement> created, Map<PsiFile, String> patched) {
+        if (null != existing) {
+            if (existing.isValid()) {
+                patched.putIfAbsent(existing, existing.getText());
+                IncrementalPatcher.patch(existing, file);
+            }
+
+            return;
+        }
+
+        PsiDirectory directory = root;
+        for (String name : path.split("/")) {
+            if (name.isEmpty()) {
+                continue;
+            }
+
+            PsiDirectory subDirectory = directory.findSubdirectory(name);
+            if (null == subDirectory) {
+                subDirectory = directory.createSubdirectory(name);
+                created.add(subDirectory);
+            }
+
+            directory = subDirectory;
+        }
+
+        if (null == directory.findFile(file.getName())) {
+            created.add(directory.add(file));
+        }
+    }
+
+    /**
+     * 在后台任务中逐个写入文件
+     * 每个文件使用单独的写操作，写操作之间界面可以响应，用户可以随时取消；
+     * 所有写操作属于同一个命令组，撤销时作为一个整体撤销。取消或者失败时删除已经创建的目录及文件，并恢复已经更新的文件。
+     *
+     * @param project     项目
+     * @param commandName 命令名称
+     * @param files       需要写入的文件
+     * @param indicator   后台任务的进度
+     * @return 本次创建的目录及文件
+     */
+    static List<PsiElement> writeAll(Project project, String commandName, List<GeneratedFile> files,
+                                     ProgressIndicator indicator) {
+        String groupId = commandName + System.nanoTime();
+        List<PsiElement> created = new ArrayList<>(files.size());
+        Map<PsiFile, String> patched = new LinkedHashMap<>();
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                indicator.checkCanceled();
+                indicator.setFraction((double) i / files.size());
+
+                GeneratedFile file = files.get(i);
+                indicator.setText2(file.getName());
+                ApplicationManager.getApplication().invokeAndWait(() ->
+                        WriteCommandAction.runWriteCommandAction(project, commandName, groupId, () -> file.write(created, patched)));
+            }
+        } catch (RuntimeException e) {
+            // 包括用户取消时抛出的ProcessCanceledException
+            ApplicationManager.getApplication().invokeAndWait(() ->
+                    WriteCommandAction.runWriteCommandAction(project, commandName, groupId, () -> rollback(created, patched)));
+            throw e;
+        }
+
+        return created;
+    }
+
+    /**
+     * 将本次更新的文件恢复为更新前的内容，再按创建的相反顺序删除本次创建的文件及目录
+     */
+    private static void rollback(List<PsiElement> created, Map<PsiFile, String> patched) {
+        patched.forEach((file, text) -> {
+            if (file.isValid()) {
+                restore(file, text);
+            }
+        });
+        patched.clear();
+
+        for (int i = created.size() - 1; i >= 0; i--) {
+            PsiElement element = created.get(i);
+            if (element.isValid()) {
+                element.delete();
+            }
+        }
+
+        created.clear();
+    }
+
+    /**
+     * 通过文件对应的文档恢复文件内容，恢复前先提交对PSI的修改
+     */
+    private static void restore(PsiFile file, String text) {
+        PsiDocumentManager documentManager = PsiDocumentManager.getInstance(file.getProject());
+        Document document = documentManager.getDocument(file);
+        if (null == document) {
+            return;
+        }
+
+        documentManager.doPostponedOperationsAndUnblockDocument(document);
+        document.setText(text);
+        documentManager.commitDocument(document);
+    }
+}
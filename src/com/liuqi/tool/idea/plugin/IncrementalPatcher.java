@@ -0,0 +1,210 @@
+package com.liuqi.tool.idea.plugin;
+
+import com.intellij.psi.*;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.javadoc.PsiDocComment;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.xml.XmlComment;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
+import com.liuqi.tool.idea.plugin.engine.FingerprintTags;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.*;
+
+/**
+ * 增量生成时对已存在文件的更新
+ * 只替换与实体属性相关的部分，并只格式化被替换的元素，文件其它部分（包括手工修改的内容）保持不变：
+ * <ul>
+ * <li>DTO：属性及其Getter、Setter方法，属性清单之外的属性不会被删除；</li>
+ * <li>映射文件：resultMap、columns、columnsLite、columnsProjection、idsIn片段及batchAdd、add、updateSelective、deleteById、deleteByIds语句。</li>
+ * </ul>
+ * 需要在写操作中执行。
+ *
+ * @author LiuQi 2020/6/11-11:15
+ * @version V1.0
+ **/
+final class IncrementalPatcher {
+    /**
+     * 映射文件中需要更新的元素
+     */
+    private static final List<String> MAPPER_ELEMENTS = Arrays.asList("resultMap", "columns", "columnsLite", "columnsProjection",
+            "batchAdd", "add", "idsIn", "updateSelective", "deleteById", "deleteByIds");
+
+    private IncrementalPatcher() {
+    }
+
+    /**
+     * 判断已存在的文件是否需要更新
+     *
+     * @param existing    已存在的文件
+     * @param fingerprint 实体当前的指纹
+     * @return 文件中记录的指纹与当前指纹不一致时返回true
+     */
+    static boolean isChanged(PsiFile existing, String fingerprint) {
+        return !FingerprintTags.read(existing.getText(), FingerprintTags.HASH)
+                .map(fingerprint::equals)
+                .orElse(false);
+    }
+
+    /**
+     * 使用新生成的文件更新已存在的文件
+     *
+     * @param existing  已存在的文件
+     * @param generated 新生成的文件，未添加到任何目录中
+     */
+    static void patch(PsiFile existing, PsiFile generated) {
+        if (existing instanceof PsiJavaFile && generated instanceof PsiJavaFile) {
+            patchClass((PsiJavaFile) existing, (PsiJavaFile) generated);
+        } else if (existing instanceof XmlFile && generated instanceof XmlFile) {
+            patchMapper((XmlFile) existing, (XmlFile) generated);
+        }
+    }
+
+    private static void patchClass(PsiJavaFile existingFile, PsiJavaFile generatedFile) {
+        PsiClass existing = existingFile.getClasses()[0];
+        PsiClass generated = generatedFile.getClasses()[0];
+        CodeStyleManager codeStyleManager = CodeStyleManager.getInstance(existingFile.getProject());
+
+        // 补充新属性需要的导入
+        PsiImportList existingImports = existingFile.getImportList();
+        PsiImportList generatedImports = generatedFile.getImportList();
+        if (null != existingImports && null != generatedImports) {
+            for (PsiImportStatement statement : generatedImports.getImportStatements()) {
+                String qualifiedName = statement.getQualifiedName();
+                if (null != qualifiedName && null == existingImports.findSingleClassImportStatement(qualifiedName)) {
+                    codeStyleManager.reformat(existingImports.add(statement));
+                }
+            }
+        }
+
+        // 删除上次生成、但实体中已经不存在的属性
+        Set<String> generatedFields = new HashSet<>();
+        for (PsiField field : generated.getFields()) {
+            generatedFields.add(field.getName());
+        }
+
+        PsiDocComment docComment = existing.getDocComment();
+        Set<String> previousFields = null == docComment ? Collections.emptySet() : FingerprintTags.readFields(docComment.getText());
+        for (String name : previousFields) {
+            PsiField field = existing.findFieldByName(name, false);
+            if (generatedFields.contains(name) || null == field) {
+                continue;
+            }
+
+            for (String methodName : getAccessorNames(name)) {
+                for (PsiMethod method : existing.findMethodsByName(methodName, false)) {
+                    method.delete();
+                }
+            }
+
+            field.delete();
+        }
+
+        // 新增或者修改的属性，属性声明未变化时不做处理
+        for (PsiField generatedField : generated.getFields()) {
+            String name = generatedField.getName();
+            PsiField field = existing.findFieldByName(name, false);
+            if (null != field && normalize(field.getText()).equals(normalize(generatedField.getText()))) {
+                continue;
+            }
+
+            if (null != field) {
+                codeStyleManager.reformat(field.replace(generatedField));
+            } else {
+                PsiField[] fields = existing.getFields();
+                PsiElement anchor = 0 == fields.length ? existing.getLBrace() : fields[fields.length - 1];
+                codeStyleManager.reformat(existing.addAfter(generatedField, anchor));
+            }
+
+            for (String methodName : getAccessorNames(name)) {
+                PsiMethod[] generatedMethods = generated.findMethodsByName(methodName, false);
+                if (0 == generatedMethods.length) {
+                    continue;
+                }
+
+                PsiMethod[] methods = existing.findMethodsByName(methodName, false);
+                codeStyleManager.reformat(0 == methods.length ? existing.add(generatedMethods[0])
+                        : methods[0].replace(generatedMethods[0]));
+            }
+        }
+
+        // 更新文件头部记录的指纹及属性清单
+        PsiDocComment generatedComment = generated.getDocComment();
+        if (null != generatedComment) {
+            if (null != docComment) {
+                docComment.replace(generatedComment);
+            } else {
+                existing.addBefore(generatedComment, existing.getFirstChild());
+            }
+        }
+    }
+
+    private static void patchMapper(XmlFile existingFile, XmlFile generatedFile) {
+        XmlTag existing = existingFile.getRootTag();
+        XmlTag generated = generatedFile.getRootTag();
+        if (null == existing || null == generated) {
+            return;
+        }
+
+        CodeStyleManager codeStyleManager = CodeStyleManager.getInstance(existingFile.getProject());
+        for (String id : MAPPER_ELEMENTS) {
+            XmlTag generatedTag = findById(generated, id);
+            if (null == generatedTag) {
+                continue;
+            }
+
+            XmlTag tag = findById(existing, id);
+            if (null == tag) {
+                codeStyleManager.reformat(existing.addSubTag(generatedTag, false));
+            } else if (!normalize(tag.getText()).equals(normalize(generatedTag.getText()))) {
+                codeStyleManager.reformat(tag.replace(generatedTag));
+            }
+        }
+
+        // 更新指纹注释，之前生成的文件中没有时增加在根元素之前
+        XmlComment generatedComment = findFingerprintComment(generatedFile);
+        if (null == generatedComment) {
+            return;
+        }
+
+        XmlComment comment = findFingerprintComment(existingFile);
+        if (null != comment) {
+            comment.replace(generatedComment);
+        } else {
+            existing.getParent().addBefore(generatedComment, existing);
+        }
+    }
+
+    private static XmlTag findById(XmlTag parent, String id) {
+        for (XmlTag tag : parent.getSubTags()) {
+            if (id.equals(tag.getAttributeValue("id"))) {
+                return tag;
+            }
+        }
+
+        return null;
+    }
+
+    private static XmlComment findFingerprintComment(XmlFile xmlFile) {
+        for (XmlComment comment : PsiTreeUtil.findChildrenOfType(xmlFile, XmlComment.class)) {
+            if (comment.getText().contains("@" + FingerprintTags.HASH)) {
+                return comment;
+            }
+        }
+
+        return null;
+    }
+
+    private static List<String> getAccessorNames(String fieldName) {
+        String suffix = StringUtils.capitalize(fieldName);
+        return Arrays.asList(fieldName, "set" + suffix, "get" + suffix);
+    }
+
+    /**
+     * 去掉空白的差异，已存在的文件可能经过了格式化
+     */
+    private static String normalize(String text) {
+        return text.replaceAll("\\s+", " ").trim();
+    }
+}
@@ -0,0 +1,104 @@
+package com.liuqi.tool.idea.plugin;
+
+import com.intellij.psi.*;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiUtil;
+import com.liuqi.tool.idea.plugin.engine.CodeComment;
+import com.liuqi.tool.idea.plugin.engine.EntityModel;
+import com.liuqi.tool.idea.plugin.engine.FieldModel;
+
+import java.util.*;
+
+/**
+ * 从PSI中生成实体信息
+ * 只遍历一次实体类的PSI，结果缓存在实体类上，PSI发生修改前重复获取时直接使用缓存；
+ * 生成过程中需要的属性、列名、注释等信息都从实体信息中获取，不再重复读取PSI。
+ *
+ * @author LiuQi 2020/6/8-14:10
+ * @version V1.0
+ **/
+final class PsiEntityModels {
+    private static final List<String> COLUMN_ATTRIBUTES = Arrays.asList("name", "columnDefinition", "length", "nullable");
+
+    private PsiEntityModels() {
+    }
+
+    /**
+     * 获取实体类对应的实体信息
+     *
+     * @param entityClass 实体类
+     * @return 实体信息
+     */
+    static EntityModel of(PsiClass entityClass) {
+        return CachedValuesManager.getCachedValue(entityClass, () ->
+                CachedValueProvider.Result.create(build(entityClass), PsiModificationTracker.MODIFICATION_COUNT));
+    }
+
+    private static EntityModel build(PsiClass entityClass) {
+        // 加载注释信息
+        String text = null;
+        String author = null;
+        PsiAnnotation commentAnnotation = entityClass.getAnnotation("com.liuqi.common.web.common.annotation.Comment");
+        if (null != commentAnnotation) {
+            String value = getAttributeText(commentAnnotation, "value")
+                    .orElseGet(() -> getAttributeText(commentAnnotation, "entityName").orElse(""));
+            text = value.replace("\"", "");
+            author = getAttributeText(commentAnnotation, "author").orElse("EntityCodeGenerator")
+                    .replace("\"", "");
+        }
+
+        // 获取表名
+        String tableName = Optional.ofNullable(entityClass.getAnnotation("javax.persistence.Table"))
+                .flatMap(annotation -> getAttributeText(annotation, "name"))
+                .orElse("tableName")
+                .replaceAll("\"", "");
+
+        Map<PsiField, FieldModel> fieldModels = new HashMap<>(32);
+        List<FieldModel> fields = new ArrayList<>();
+        for (PsiField field : entityClass.getFields()) {
+            fields.add(fieldModels.computeIfAbsent(field, PsiEntityModels::toFieldModel));
+        }
+
+        List<FieldModel> allFields = new ArrayList<>();
+        for (PsiField field : entityClass.getAllFields()) {
+            allFields.add(fieldModels.computeIfAbsent(field, PsiEntityModels::toFieldModel));
+        }
+
+        String packageName = ((PsiJavaFile) entityClass.getContainingFile()).getPackageName();
+        return new EntityModel(packageName, entityClass.getName(), tableName, new CodeComment(text, author),
+                fields, allFields);
+    }
+
+    private static FieldModel toFieldModel(PsiField field) {
+        String typeQualifiedName = field.getType().getCanonicalText();
+        String typeName = typeQualifiedName;
+        if (typeName.contains(".")) {
+            typeName = typeName.substring(typeName.lastIndexOf(".") + 1);
+        }
+
+        Map<String, String> columnAttributes = new HashMap<>(4);
+        PsiAnnotation columnAnnotation = field.getAnnotation("javax.persistence.Column");
+        if (null != columnAnnotation) {
+            for (String attribute : COLUMN_ATTRIBUTES) {
+                getAttributeText(columnAnnotation, attribute).ifPresent(value -> columnAttributes.put(attribute, value));
+            }
+        }
+
+        // 直接解析属性类型，不需要再按名称查找类
+        PsiClass typeClass = PsiUtil.resolveClassInType(field.getType());
+        boolean enumType = null != typeClass && typeClass.isEnum();
+
+        boolean lob = null != field.getAnnotation("javax.persistence.Lob");
+
+        return new FieldModel(field.getName(), typeName, typeQualifiedName, columnAttributes, enumType, lob);
+    }
+
+    /**
+     * 获取注解中显式指定的属性的原始文本
+     */
+    private static Optional<String> getAttributeText(PsiAnnotation annotation, String attribute) {
+        return Optional.ofNullable(annotation.findDeclaredAttributeValue(attribute)).map(PsiElement::getText);
+    }
+}
@@ -30,32 +30,7 @@ public class GeneratorConfig {
         GeneratorConfig config = new GeneratorConfig();
         if (path.toFile().exists()) {
             try {
-                Map<String, String> properties = PropertiesUtil.loadProperties(new FileReader(path.toFile()));
-                properties.forEach((k, v) -> {
-                    switch (k) {
-                        case "common.func.excel":
-                            config.setExcelFunc(Boolean.parseBoolean(v));
-                            break;
-                        case "controller.prefix":
-                            config.setControllerPrefix(v);
-                            break;
-                        case "common.super":
-                            config.setWithSuper(Boolean.parseBoolean(v));
-                            break;
-                        case "common.super.service":
-                            config.setSuperService(v);
-                            break;
-                        case "common.super.controller":
-                            config.setSuperController(v);
-                            break;
-                        case "common.super.dao":
-                            config.setSuperDao(v);
-                            break;
-                        case "ui.enable":
-                            config.setWithPage(Boolean.parseBoolean(v));
-                            break;
-                    }
-                });
+                config.apply(PropertiesUtil.loadProperties(new FileReader(path.toFile())));
             } catch (IOException e) {
                 System.out.println("加载配置文件失败");
             }
@@ -65,7 +40,34 @@ public class GeneratorConfig {
             try {
                 List<String> configs = Arrays.asList("# 是否生成Excel相关功能", "common.func.excel=false",
                         "# Service是否生成接口", "service.interface=false",
-                        "# 控制器路径前缀", "controller.prefix=/api");
+                        "# 控制器路径前缀", "controller.prefix=/api",
+                        "# 是否增量生成，实体属性变化时更新已生成的DTO及MyBatis映射文件", "generate.incremental=false",
+                        "# 批量新增时每批的记录数，为0时不分批", "mapper.batch.size=0",
+                        "# 批量新增是否使用BATCH执行器逐条提交，需要同时配置每批的记录数", "mapper.batch.executor=false",
+                        "# 是否生成按主键游标分页的查询", "query.seek=false",
+                        "# 分页查询统计总数的方式：auto每次统计，none不统计，cache缓存统计结果", "query.count=auto",
+                        "# 缓存统计结果的秒数", "query.count.ttl=30",
+                        "# 列表查询是否默认不查询大字段", "query.lite=false",
+                        "# 超过此长度的字符串列作为大字段", "query.lite.length=1000",
+                        "# Excel下载是否使用游标流式写出，需要同时开启Excel相关功能", "excel.stream=false",
+                        "# 流式写出时内存中保留的行数", "excel.stream.window=100",
+                        "# Excel上传是否流式读取并分批写入，需要同时开启Excel相关功能", "excel.upload.stream=false",
+                        "# 流式上传时每批写入的记录数", "excel.upload.batch=1000",
+                        "# 生成实体注解时主键的生成方式：identity、sequence或table", "entity.id.generator=identity",
+                        "# 使用sequence或table时每次分配的主键数量", "entity.id.allocation=50",
+                        "# JPA批量写入时每批的记录数，大于0时生成Hibernate批量配置，为0时不处理", "jpa.batch.size=0",
+                        "# 是否按默认查询条件生成索引注解及创建索引的SQL", "entity.index=false",
+                        "# 服务类是否缓存findOne及findAll的结果", "service.cache=false",
+                        "# 每个缓存的最大记录数", "service.cache.size=1000",
+                        "# 缓存写入后的有效秒数", "service.cache.ttl=600",
+                        "# 是否生成以游标逐条处理查询结果的forEach及stream方法", "query.stream=false",
+                        "# 游标每次从数据库读取的记录数，MySQL需要在连接串中增加useCursorFetch=true", "query.stream.fetch=1000",
+                        "# findAll最多返回的记录数，超过时直接报错，为0时不限制", "query.findAll.limit=0",
+                        "# 修改及删除是否直接执行单条语句，不先查询再保存", "mapper.write.direct=false",
+                        "# 是否由MapStruct生成修改及新增时的属性复制方法，不再通过反射复制", "mapper.mapstruct.copy=false",
+                        "# 按主键查询时是否直接查询DTO，不经过JPA加载实体", "query.findOne.dto=false",
+                        "# 是否生成R2DBC及WebFlux的响应式代码，代替JPA、MyBatis及Spring MVC代码", "profile.reactive=false",
+                        "# 是否面向Java 21生成使用虚拟线程的配置，分页时不使用PageHelper", "thread.virtual=false");
                 Files.write(path, configs, StandardOpenOption.CREATE);
             } catch (IOException e) {
                 System.out.println("创建配置文件失败");
@@ -75,6 +77,156 @@ public class GeneratorConfig {
         return config;
     }
 
+    /**
+     * 根据配置项创建配置，不依赖IDE，供命令行生成使用
+     *
+     * @param properties 配置项
+     * @return 配置
+     */
+    public static GeneratorConfig of(Map<String, String> properties) {
+        GeneratorConfig config = new GeneratorConfig();
+        config.apply(properties);
+        return config;
+    }
+
+    private void apply(Map<String, String> properties) {
+        properties.forEach((k, v) -> {
+            switch (k) {
+                case "common.func.excel":
+                    this.setExcelFunc(Boolean.parseBoolean(v));
+                    break;
+                case "controller.prefix":
+                    this.setControllerPrefix(v);
+                    break;
+                case "common.super":
+                    this.setWithSuper(Boolean.parseBoolean(v));
+                    break;
+                case "common.super.service":
+                    this.setSuperService(v);
+                    break;
+                case "common.super.controller":
+                    this.setSuperController(v);
+                    break;
+                case "common.super.dao":
+                    this.setSuperDao(v);
+                    break;
+                case "ui.enable":
+                    this.setWithPage(Boolean.parseBoolean(v));
+                    break;
+                case "generate.incremental":
+                    this.setIncremental(Boolean.parseBoolean(v));
+                    break;
+                case "mapper.batch.size":
+                    this.setBatchSize(parseInt(k, v, this.getBatchSize(), 0));
+                    break;
+                case "mapper.batch.executor":
+                    this.setBatchExecutor(Boolean.parseBoolean(v));
+                    break;
+                case "query.seek":
+                    this.setSeekQuery(Boolean.parseBoolean(v));
+                    break;
+                case "query.count":
+                    this.setCountMode(parseOption(k, v, this.getCountMode(), "auto", "none", "cache"));
+                    break;
+                case "query.count.ttl":
+                    this.setCountCacheSeconds(parseInt(k, v, this.getCountCacheSeconds(), 1));
+                    break;
+                case "query.lite":
+                    this.setLiteQuery(Boolean.parseBoolean(v));
+                    break;
+                case "query.lite.length":
+                    this.setLiteMaxLength(parseInt(k, v, this.getLiteMaxLength(), 1));
+                    break;
+                case "excel.stream":
+                    this.setExcelStream(Boolean.parseBoolean(v));
+                    break;
+                case "excel.stream.window":
+                    this.setExcelStreamWindow(parseInt(k, v, this.getExcelStreamWindow(), 1));
+                    break;
+                case "excel.upload.stream":
+                    this.setExcelUploadStream(Boolean.parseBoolean(v));
+                    break;
+                case "excel.upload.batch":
+                    this.setExcelUploadBatch(parseInt(k, v, this.getExcelUploadBatch(), 1));
+                    break;
+                case "entity.id.generator":
+                    this.setIdGenerator(parseOption(k, v, this.getIdGenerator(), "identity", "sequence", "table"));
+                    break;
+                case "entity.id.allocation":
+                    this.setIdAllocationSize(parseInt(k, v, this.getIdAllocationSize(), 1));
+                    break;
+                case "jpa.batch.size":
+                    this.setJpaBatchSize(parseInt(k, v, this.getJpaBatchSize(), 0));
+                    break;
+                case "entity.index":
+                    this.setWithIndex(Boolean.parseBoolean(v));
+                    break;
+                case "service.cache":
+                    this.setServiceCache(Boolean.parseBoolean(v));
+                    break;
+                case "service.cache.size":
+                    this.setCacheSize(parseInt(k, v, this.getCacheSize(), 1));
+                    break;
+                case "service.cache.ttl":
+                    this.setCacheSeconds(parseInt(k, v, this.getCacheSeconds(), 1));
+                    break;
+                case "query.stream":
+                    this.setStreamQuery(Boolean.parseBoolean(v));
+                    break;
+                case "query.stream.fetch":
+                    this.setCursorFetchSize(parseInt(k, v, this.getCursorFetchSize(), 1));
+                    break;
+                case "query.findAll.limit":
+                    this.setFindAllLimit(parseInt(k, v, this.getFindAllLimit(), 0));
+                    break;
+                case "mapper.write.direct":
+                    this.setDirectWrite(Boolean.parseBoolean(v));
+                    break;
+                case "mapper.mapstruct.copy":
+                    this.setMapstructCopy(Boolean.parseBoolean(v));
+                    break;
+                case "query.findOne.dto":
+                    this.setFindOneDto(Boolean.parseBoolean(v));
+                    break;
+                case "profile.reactive":
+                    this.setReactive(Boolean.parseBoolean(v));
+                    break;
+                case "thread.virtual":
+                    this.setVirtualThreads(Boolean.parseBoolean(v));
+                    break;
+            }
+        });
+    }
+
+    /**
+     * 解析整数配置项，不是整数或者小于最小值时记录错误的配置并使用默认值
+     */
+    private static Integer parseInt(String key, String value, Integer defaultValue, int min) {
+        try {
+            int result = Integer.parseInt(value.trim());
+            if (result >= min) {
+                return result;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+
+        System.out.println("配置项" + key + "的值" + value + "无效，应为不小于" + min + "的整数，使用默认值" + defaultValue);
+        return defaultValue;
+    }
+
+    /**
+     * 解析取值固定的配置项，不是可选值时记录错误的配置并使用默认值
+     */
+    private static String parseOption(String key, String value, String defaultValue, String... options) {
+        String result = value.trim();
+        if (Arrays.asList(options).contains(result)) {
+            return result;
+        }
+
+        System.out.println("配置项" + key + "的值" + value + "无效，应为" + String.join("、", options) + "之一，使用默认值" + defaultValue);
+        return defaultValue;
+    }
+
     /**
      * 是否生成Excel相关功能
      */
@@ -107,6 +259,153 @@ public class GeneratorConfig {
      */
     private Boolean withPage = false;
 
+    /**
+     * 是否增量生成：已生成的DTO及映射文件在实体属性变化时只更新属性相关的部分，为false时已存在的文件不做任何处理
+     */
+    private Boolean incremental = false;
+
+    /**
+     * 批量新增时每批的记录数，大于0时服务类按此大小分批调用batchAdd，避免一次生成过长的SQL；为0时不分批；
+     * 只影响显式调用的batchAdd，Excel上传仍通过JPA保存
+     */
+    private Integer batchSize = 0;
+
+    /**
+     * 批量新增是否使用ExecutorType.BATCH的SqlSession逐条插入，每批记录数达到batchSize时提交一次
+     */
+    private Boolean batchExecutor = false;
+
+    /**
+     * 是否生成游标分页查询：按主键排序，从上一页最后一条记录的主键之后开始查询，查询深度不影响性能
+     */
+    private Boolean seekQuery = false;
+
+    /**
+     * 分页查询统计总数的方式：auto由PageHelper每次统计；none不统计，适用于滚动加载；
+     * cache按count语句使用的查询条件以Caffeine缓存统计结果，count接口使用同一个缓存
+     */
+    private String countMode = "auto";
+
+    /**
+     * 缓存统计结果的秒数
+     */
+    private Integer countCacheSeconds = 30;
+
+    /**
+     * 列表查询是否默认只查询非大字段，查询对象中fullColumns为true时查询所有列，fields不为空时只查询其中的属性
+     */
+    private Boolean liteQuery = false;
+
+    /**
+     * 非大字段的最大长度，超过此长度的字符串列在列表查询中不查询
+     */
+    private Integer liteMaxLength = 1000;
+
+    /**
+     * Excel下载是否使用MyBatis游标逐行读取，并通过SXSSF直接写到响应流中，导出数据量不影响内存占用
+     */
+    private Boolean excelStream = false;
+
+    /**
+     * 流式写出时内存中保留的行数，超出的行写入临时文件
+     */
+    private Integer excelStreamWindow = 100;
+
+    /**
+     * Excel上传是否以SAX方式逐行读取，校验失败的行记录错误后继续读取，其余行分批在各自的事务中通过JPA保存
+     */
+    private Boolean excelUploadStream = false;
+
+    /**
+     * 流式上传时每批写入的记录数
+     */
+    private Integer excelUploadBatch = 1000;
+
+    /**
+     * 生成实体注解时主键的生成方式：identity使用数据库自增，Hibernate无法批量插入；
+     * sequence或table使用序列或主键表，按allocationSize成批分配主键
+     */
+    private String idGenerator = "identity";
+
+    /**
+     * 使用序列或主键表时每次分配的主键数量
+     */
+    private Integer idAllocationSize = 50;
+
+    /**
+     * JPA批量写入时每批的记录数，大于0时生成Hibernate批量插入配置，服务类批量保存时每批刷新并清理一次持久化上下文
+     */
+    private Integer jpaBatchSize = 0;
+
+    /**
+     * 是否按生成的查询默认使用的条件及排序字段生成索引：生成实体注解时在Table注解中增加索引，生成代码时生成创建索引的SQL
+     */
+    private Boolean withIndex = false;
+
+    /**
+     * 服务类是否通过Spring Cache缓存findOne及findAll的结果，缓存使用Caffeine并记录命中率；
+     * 新增、修改及删除时清理对应的缓存
+     */
+    private Boolean serviceCache = false;
+
+    /**
+     * 每个缓存的最大记录数
+     */
+    private Integer cacheSize = 1000;
+
+    /**
+     * 缓存写入后的有效秒数
+     */
+    private Integer cacheSeconds = 600;
+
+    /**
+     * 是否生成以游标逐条处理查询结果的forEach及stream方法，用于后台任务遍历整张表
+     */
+    private Boolean streamQuery = false;
+
+    /**
+     * 游标每次从数据库读取的记录数，流式查询及流式下载共用；
+     * 使用MySQL时需要在连接串中增加useCursorFetch=true，否则驱动仍会一次读取全部结果
+     */
+    private Integer cursorFetchSize = 1000;
+
+    /**
+     * 服务类findAll最多返回的记录数，超过时直接报错而不是加载所有数据；为0时不限制；
+     * Dao中的findAll语句不限制，不会截断其它调用方的结果
+     */
+    private Integer findAllLimit = 0;
+
+    /**
+     * 修改及删除是否直接执行单条语句：修改只更新非空属性，逻辑删除直接更新deleted，并生成按主键批量删除的方法；
+     * 为false时先查询出对象，修改后再整体保存
+     */
+    private Boolean directWrite = false;
+
+    /**
+     * 是否在对象转换器中生成修改及新增DTO的复制方法，编译时生成直接调用Getter、Setter的代码；
+     * 为false时通过LBeanUtils反射复制非空属性
+     */
+    private Boolean mapstructCopy = false;
+
+    /**
+     * 按主键查询时是否通过MyBatis直接映射成DTO，查询结果不进入持久化上下文；
+     * 为false时通过JPA查询实体后再转换成DTO
+     */
+    private Boolean findOneDto = false;
+
+    /**
+     * 是否生成响应式代码：R2DBC映射对象及Repository、返回Mono/Flux的服务类以及WebFlux控制器，
+     * 此时只生成DTO及上述类，不再生成JPA、MyBatis、Spring MVC相关的类及前端页面
+     */
+    private Boolean reactive = false;
+
+    /**
+     * 是否使用虚拟线程：生成Tomcat及异步任务使用虚拟线程的公共配置，需要Java 21及Spring Boot 2.2以上（建议3.2），
+     * 项目中没有Spring Boot 2.2提供的TomcatProtocolHandlerCustomizer时不生成该配置；
+     * 分页查询直接将分页参数传给查询语句，不再通过PageHelper的ThreadLocal传递，并生成对比压测脚本
+     */
+    private Boolean virtualThreads = false;
+
     public Boolean getExcelFunc() {
         return excelFunc;
     }
@@ -226,6 +525,399 @@ public class GeneratorConfig {
         return this.withPage;
     }
 
+    public GeneratorConfig incremental(Boolean incremental) {
+        this.incremental = incremental;
+        return this;
+    }
+
+    public void setIncremental(Boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public Boolean getIncremental() {
+        return this.incremental;
+    }
+
+    public GeneratorConfig batchSize(Integer batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public void setBatchSize(Integer batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Integer getBatchSize() {
+        return this.batchSize;
+    }
+
+    public GeneratorConfig batchExecutor(Boolean batchExecutor) {
+        this.batchExecutor = batchExecutor;
+        return this;
+    }
+
+    public void setBatchExecutor(Boolean batchExecutor) {
+        this.batchExecutor = batchExecutor;
+    }
+
+    public Boolean getBatchExecutor() {
+        return this.batchExecutor;
+    }
+
+    public GeneratorConfig seekQuery(Boolean seekQuery) {
+        this.seekQuery = seekQuery;
+        return this;
+    }
+
+    public void setSeekQuery(Boolean seekQuery) {
+        this.seekQuery = seekQuery;
+    }
+
+    public Boolean getSeekQuery() {
+        return this.seekQuery;
+    }
+
+    public GeneratorConfig countMode(String countMode) {
+        this.countMode = countMode;
+        return this;
+    }
+
+    public void setCountMode(String countMode) {
+        this.countMode = countMode;
+    }
+
+    public String getCountMode() {
+        return this.countMode;
+    }
+
+    public GeneratorConfig countCacheSeconds(Integer countCacheSeconds) {
+        this.countCacheSeconds = countCacheSeconds;
+        return this;
+    }
+
+    public void setCountCacheSeconds(Integer countCacheSeconds) {
+        this.countCacheSeconds = countCacheSeconds;
+    }
+
+    public Integer getCountCacheSeconds() {
+        return this.countCacheSeconds;
+    }
+
+    public GeneratorConfig liteQuery(Boolean liteQuery) {
+        this.liteQuery = liteQuery;
+        return this;
+    }
+
+    public void setLiteQuery(Boolean liteQuery) {
+        this.liteQuery = liteQuery;
+    }
+
+    public Boolean getLiteQuery() {
+        return this.liteQuery;
+    }
+
+    public GeneratorConfig liteMaxLength(Integer liteMaxLength) {
+        this.liteMaxLength = liteMaxLength;
+        return this;
+    }
+
+    public void setLiteMaxLength(Integer liteMaxLength) {
+        this.liteMaxLength = liteMaxLength;
+    }
+
+    public Integer getLiteMaxLength() {
+        return this.liteMaxLength;
+    }
+
+    public GeneratorConfig excelStream(Boolean excelStream) {
+        this.excelStream = excelStream;
+        return this;
+    }
+
+    public void setExcelStream(Boolean excelStream) {
+        this.excelStream = excelStream;
+    }
+
+    public Boolean getExcelStream() {
+        return this.excelStream;
+    }
+
+    public GeneratorConfig excelStreamWindow(Integer excelStreamWindow) {
+        this.excelStreamWindow = excelStreamWindow;
+        return this;
+    }
+
+    public void setExcelStreamWindow(Integer excelStreamWindow) {
+        this.excelStreamWindow = excelStreamWindow;
+    }
+
+    public Integer getExcelStreamWindow() {
+        return this.excelStreamWindow;
+    }
+
+    public GeneratorConfig excelUploadStream(Boolean excelUploadStream) {
+        this.excelUploadStream = excelUploadStream;
+        return this;
+    }
+
+    public void setExcelUploadStream(Boolean excelUploadStream) {
+        this.excelUploadStream = excelUploadStream;
+    }
+
+    public Boolean getExcelUploadStream() {
+        return this.excelUploadStream;
+    }
+
+    public GeneratorConfig excelUploadBatch(Integer excelUploadBatch) {
+        this.excelUploadBatch = excelUploadBatch;
+        return this;
+    }
+
+    public void setExcelUploadBatch(Integer excelUploadBatch) {
+        this.excelUploadBatch = excelUploadBatch;
+    }
+
+    public Integer getExcelUploadBatch() {
+        return this.excelUploadBatch;
+    }
+
+    public GeneratorConfig idGenerator(String idGenerator) {
+        this.idGenerator = idGenerator;
+        return this;
+    }
+
+    public void setIdGenerator(String idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+
+    public String getIdGenerator() {
+        return this.idGenerator;
+    }
+
+    public GeneratorConfig idAllocationSize(Integer idAllocationSize) {
+        this.idAllocationSize = idAllocationSize;
+        return this;
+    }
+
+    public void setIdAllocationSize(Integer idAllocationSize) {
+        this.idAllocationSize = idAllocationSize;
+    }
+
+    public Integer getIdAllocationSize() {
+        return this.idAllocationSize;
+    }
+
+    public GeneratorConfig jpaBatchSize(Integer jpaBatchSize) {
+        this.jpaBatchSize = jpaBatchSize;
+        return this;
+    }
+
+    public void setJpaBatchSize(Integer jpaBatchSize) {
+        this.jpaBatchSize = jpaBatchSize;
+    }
+
+    public Integer getJpaBatchSize() {
+        return this.jpaBatchSize;
+    }
+
+    public GeneratorConfig withIndex(Boolean withIndex) {
+        this.withIndex = withIndex;
+        return this;
+    }
+
+    public void setWithIndex(Boolean withIndex) {
+        this.withIndex = withIndex;
+    }
+
+    public Boolean getWithIndex() {
+        return this.withIndex;
+    }
+
+    public GeneratorConfig serviceCache(Boolean serviceCache) {
+        this.serviceCache = serviceCache;
+        return this;
+    }
+
+    public void setServiceCache(Boolean serviceCache) {
+        this.serviceCache = serviceCache;
+    }
+
+    public Boolean getServiceCache() {
+        return this.serviceCache;
+    }
+
+    public GeneratorConfig cacheSize(Integer cacheSize) {
+        this.cacheSize = cacheSize;
+        return this;
+    }
+
+    public void setCacheSize(Integer cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    public Integer getCacheSize() {
+        return this.cacheSize;
+    }
+
+    public GeneratorConfig cacheSeconds(Integer cacheSeconds) {
+        this.cacheSeconds = cacheSeconds;
+        return this;
+    }
+
+    public void setCacheSeconds(Integer cacheSeconds) {
+        this.cacheSeconds = cacheSeconds;
+    }
+
+    public Integer getCacheSeconds() {
+        return this.cacheSeconds;
+    }
+
+    public GeneratorConfig streamQuery(Boolean streamQuery) {
+        this.streamQuery = streamQuery;
+        return this;
+    }
+
+    public void setStreamQuery(Boolean streamQuery) {
+        this.streamQuery = streamQuery;
+    }
+
+    public Boolean getStreamQuery() {
+        return this.streamQuery;
+    }
+
+    public GeneratorConfig cursorFetchSize(Integer cursorFetchSize) {
+        this.cursorFetchSize = cursorFetchSize;
+        return this;
+    }
+
+    public void setCursorFetchSize(Integer cursorFetchSize) {
+        this.cursorFetchSize = cursorFetchSize;
+    }
+
+    public Integer getCursorFetchSize() {
+        return this.cursorFetchSize;
+    }
+
+    public GeneratorConfig findAllLimit(Integer findAllLimit) {
+        this.findAllLimit = findAllLimit;
+        return this;
+    }
+
+    public void setFindAllLimit(Integer findAllLimit) {
+        this.findAllLimit = findAllLimit;
+    }
+
+    public Integer getFindAllLimit() {
+        return this.findAllLimit;
+    }
+
+    public GeneratorConfig directWrite(Boolean directWrite) {
+        this.directWrite = directWrite;
+        return this;
+    }
+
+    public void setDirectWrite(Boolean directWrite) {
+        this.directWrite = directWrite;
+    }
+
+    public Boolean getDirectWrite() {
+        return this.directWrite;
+    }
+
+    public GeneratorConfig mapstructCopy(Boolean mapstructCopy) {
+        this.mapstructCopy = mapstructCopy;
+        return this;
+    }
+
+    public void setMapstructCopy(Boolean mapstructCopy) {
+        this.mapstructCopy = mapstructCopy;
+    }
+
+    public Boolean getMapstructCopy() {
+        return this.mapstructCopy;
+    }
+
+    public GeneratorConfig findOneDto(Boolean findOneDto) {
+        this.findOneDto = findOneDto;
+        return this;
+    }
+
+    public void setFindOneDto(Boolean findOneDto) {
+        this.findOneDto = findOneDto;
+    }
+
+    public Boolean getFindOneDto() {
+        return this.findOneDto;
+    }
+
+    public GeneratorConfig reactive(Boolean reactive) {
+        this.reactive = reactive;
+        return this;
+    }
+
+    public void setReactive(Boolean reactive) {
+        this.reactive = reactive;
+    }
+
+    public Boolean getReactive() {
+        return this.reactive;
+    }
+
+    public GeneratorConfig virtualThreads(Boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    public void setVirtualThreads(Boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public Boolean getVirtualThreads() {
+        return this.virtualThreads;
+    }
+
+    /**
+     * 是否需要生成游标查询，流式查询及流式下载都使用游标查询
+     */
+    public Boolean getQueryCursor() {
+        return getStreamDownload() || (streamQuery && !withSuper);
+    }
+
+    /**
+     * 是否生成流式的Excel上传，服务类继承父类时使用父类中的上传方法
+     */
+    public Boolean getStreamUpload() {
+        return excelFunc && excelUploadStream && !withSuper;
+    }
+
+    /**
+     * 是否生成流式的Excel下载，服务类继承父类时使用父类中的下载方法
+     */
+    public Boolean getStreamDownload() {
+        return excelFunc && excelStream && !withSuper;
+    }
+
+    /**
+     * 分页查询是否直接使用分页参数，服务类继承父类时使用父类中的分页方法
+     */
+    public Boolean getExplicitPaging() {
+        return virtualThreads && !withSuper;
+    }
+
+    /**
+     * 分页查询时是否不需要PageHelper统计总数
+     */
+    public Boolean getSkipPageCount() {
+        return "none".equals(countMode) || getCacheCount();
+    }
+
+    /**
+     * 是否缓存统计结果
+     */
+    public Boolean getCacheCount() {
+        return "cache".equals(countMode);
+    }
+
     public Boolean getWithUserId() {
         return withUserId;
     }
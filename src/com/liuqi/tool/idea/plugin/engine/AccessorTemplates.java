@@ -0,0 +1,67 @@
+package com.liuqi.tool.idea.plugin.engine;
+
+/**
+ * Getter与Setter方法模板
+ *
+ * @author LiuQi 2020/6/8-10:52
+ * @version V1.0
+ **/
+public final class AccessorTemplates {
+    private AccessorTemplates() {
+    }
+
+    /**
+     * 生成属性的Getter与Setter方法文本
+     *
+     * @param className 属性所在类的名称
+     * @param name      属性名称
+     * @param type      属性类型
+     * @return 链式Setter、Setter及Getter三个方法的文本
+     */
+    public static String createAll(String className, String name, String type) {
+        return createBuilderSetter(className, name, type) + "\n" + createSetter(name, type) + "\n" + createGetter(name, type) + "\n";
+    }
+
+    public static String createBuilderSetter(String className, String name, String type) {
+        return "public " +
+                className +
+                " " +
+                name +
+                "(" +
+                type +
+                " " +
+                name +
+                ") {" +
+                "this." +
+                name +
+                " = " +
+                name +
+                ";" +
+                "return this;}";
+    }
+
+    public static String createSetter(String name, String type) {
+        return "public void set" +
+                name.substring(0, 1).toUpperCase() + name.substring(1) +
+                "(" +
+                type +
+                " " +
+                name +
+                ") {" +
+                "this." +
+                name +
+                " = " +
+                name +
+                ";}";
+    }
+
+    public static String createGetter(String name, String type) {
+        return "public " +
+                type +
+                " get" +
+                name.substring(0, 1).toUpperCase() + name.substring(1) +
+                "() {return this." +
+                name +
+                ";}";
+    }
+}
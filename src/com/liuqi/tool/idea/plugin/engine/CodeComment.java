@@ -0,0 +1,55 @@
+package com.liuqi.tool.idea.plugin.engine;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 生成类的注释信息
+ * 从实体类的Comment注解中获取
+ *
+ * @author LiuQi 2020/6/8-10:12
+ * @version V1.0
+ **/
+public final class CodeComment {
+    private final String text;
+    private final String author;
+
+    public CodeComment(String text, String author) {
+        this.text = text;
+        this.author = author;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    /**
+     * 生成类注释
+     *
+     * @param cName 生成类的中文名称，如“对象”、“控制器”等
+     * @return 类注释文本
+     */
+    public String getContent(String cName) {
+        return getContent(cName, Collections.emptyMap());
+    }
+
+    /**
+     * 生成带有附加标签的类注释
+     *
+     * @param cName 生成类的中文名称
+     * @param tags  附加的标签，Key为标签名称（不含@），Value为标签内容，如增量生成时使用的实体指纹
+     * @return 类注释文本
+     */
+    public String getContent(String cName, Map<String, String> tags) {
+        StringBuilder content = new StringBuilder("/** ").append(text).append(cName).append(" \n * @author ").append(author)
+                .append(" ").append(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+        tags.forEach((name, value) -> content.append("\n * @").append(name).append(" ").append(value));
+        return content.append(" **/").toString();
+    }
+}
@@ -0,0 +1,178 @@
+package com.liuqi.tool.idea.plugin.engine;
+
+import com.liuqi.tool.idea.plugin.bean.GeneratorConfig;
+import com.liuqi.tool.idea.plugin.utils.MyStringUtils;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.Arrays;
+
+/**
+ * 控制器生成器
+ * 生成控制器类的内容，不包含package及import部分
+ *
+ * @author LiuQi 2020/6/8-11:30
+ * @version V1.0
+ **/
+public final class ControllerRenderer {
+    private ControllerRenderer() {
+    }
+
+    /**
+     * 获取控制器的访问路径，包含前缀
+     *
+     * @param entityName 实体名称
+     * @param prefix     控制器路径前缀
+     * @return 访问路径
+     */
+    public static String getRequestPath(String entityName, String prefix) {
+        String controllerPath = getControllerPath(entityName);
+        return prefix + "/" + controllerPath.substring(0, 1).toLowerCase() + controllerPath.substring(1);
+    }
+
+    /**
+     * 将实体名称转换成以中划线分隔的小写路径
+     */
+    public static String getControllerPath(String entityName) {
+        return Arrays.stream(StringUtils.splitByCharacterTypeCamelCase(entityName))
+                .map(String::toLowerCase)
+                .reduce((s1, s2) -> s1.concat("-").concat(s2))
+                .orElse("");
+    }
+
+    /**
+     * 生成控制器内容
+     *
+     * @param model  实体信息
+     * @param config 生成配置
+     * @param useAPI 是否增加Swagger的Api注解
+     * @return 控制器类内容
+     */
+    public static String render(EntityModel model, GeneratorConfig config, boolean useAPI) {
+        CodeComment comment = model.getComment();
+        String prefix = config.getControllerPrefix();
+        String entityName = model.getEntityName();
+        String controllerPath = getControllerPath(entityName);
+        controllerPath = controllerPath.substring(0, 1).toLowerCase() + controllerPath.substring(1);
+
+        String serviceName = entityName + "Service";
+        String dtoName = entityName + "DTO";
+        String dtoAddName = entityName + "AddDTO";
+        String dtoUpdateName = entityName + "UpdateDTO";
+        String queryName = entityName + "Query";
+
+        StringBuilder content = new StringBuilder();
+        content.append(comment.getContent("控制器"))
+                .append("\n@RequestMapping(\"")
+                .append(prefix)
+                .append("/")
+                .append(controllerPath)
+                .append("\")")
+                .append("@RestController");
+
+        if (useAPI) {
+            content.append("@Api(tags = \"")
+                    .append(comment.getText())
+                    .append("控制器\")");
+        }
+
+        content.append(" public class ")
+                .append(entityName)
+                .append("Controller")
+                .append("{");
+
+        String entityFieldName = MyStringUtils.firstLetterToLower(entityName);
+        String entityServiceName = entityFieldName + "Service";
+
+        content.append("@Resource private ")
+                .append(serviceName)
+                .append(" ")
+                .append(entityFieldName)
+                .append("Service; ");
+
+        // 新增方法
+        content
+                .append("@ApiOperation(\"新增\") @PostMapping(\"/add\")")
+                .append("public void add(@RequestBody  ").append(dtoAddName).append(" ").append(entityFieldName).append(") { ");
+        if (config.getWithUserId()) {
+            content.append("AuthUser user = SecurityUtils.getLoginUser().orElseThrow(LogoutException::new);  ")
+                    .append(entityFieldName)
+                    .append("Service.add(user.getId(), ").append(entityFieldName).append(");}\n");
+        } else {
+            content.append(entityServiceName).append(".add(").append(entityFieldName).append("); }\n");
+        }
+
+        // 修改
+        content
+                .append("@ApiOperation(\"修改\") @PostMapping(\"/update\")")
+                .append("public void update(@RequestBody  ").append(dtoUpdateName).append(" ").append(entityFieldName).append(") { ");
+        if (config.getWithUserId()) {
+            content.append("AuthUser user = SecurityUtils.getLoginUser().orElseThrow(LogoutException::new);  ")
+                    .append(entityServiceName)
+                    .append(".update(user.getId(), ").append(entityFieldName).append(");}\n");
+        } else {
+            content.append(entityServiceName).append(".update(").append(entityFieldName).append("); }\n");
+        }
+
+        // 删除
+        content
+                .append("@ApiOperation(\"根据主键删除\")  @DeleteMapping(\"/delete/{id}\") public void delete(@PathVariable(\"id\") Long id) {");
+        if (config.getWithUserId()) {
+            content.append("AuthUser user = SecurityUtils.getLoginUser().orElseThrow(LogoutException::new);  ")
+                    .append(entityServiceName).append(".delete(user.getId(), id);}");
+        } else {
+            content.append(entityServiceName).append(".delete(id);}");
+        }
+
+        if (config.getDirectWrite()) {
+            content.append("@ApiOperation(\"根据主键批量删除\") @PostMapping(\"/delete-batch\") public void deleteByIds(@RequestBody List<Long> ids) {");
+            if (config.getWithUserId()) {
+                content.append("AuthUser user = SecurityUtils.getLoginUser().orElseThrow(LogoutException::new);  ")
+                        .append(entityServiceName).append(".deleteByIds(user.getId(), ids);}");
+            } else {
+                content.append(entityServiceName).append(".deleteByIds(ids);}");
+            }
+        }
+
+        // 查询
+        content.append("@ApiOperation(\"分页查询\") @PostMapping(\"/page-query\") public PageInfo<").append(dtoName).append(
+                "> pageQuery(@RequestBody ")
+                .append(queryName).append(" query) { return ").append(entityFieldName).append(
+                "Service.pageQuery(query);}");
+
+        if (config.getSeekQuery()) {
+            content.append("@ApiOperation(\"游标分页查询\") @PostMapping(\"/seek-query\") public List<").append(dtoName)
+                    .append("> seekQuery(@RequestBody ")
+                    .append(queryName).append(" query) { return ").append(entityServiceName).append(".seekQuery(query);}");
+        }
+
+        content
+                .append("@ApiOperation(\"查询记录数\") @PostMapping(\"/count\") public Long count(@RequestBody ")
+                .append(queryName).append(" query) { return ").append(entityFieldName).append(
+                "Service.count(query);}");
+
+        if (config.getExcelFunc()) {
+            content.append("@ApiOperation(\"模板下载\") @GetMapping(\"/template-download\") public void " +
+                    "downloadTemplate(HttpServletResponse response) {ExcelUtils.writeExcelToResponse(").append(entityServiceName).append(".downloadTemplate(), response, \"template.xlsx\"); }")
+                    .append("@ApiOperation(\"数据上传\") @PostMapping(\"/upload\") public ")
+                    .append(config.getStreamUpload() ? "List<String>" : "void")
+                    .append(" upload(@RequestParam(\"file\")MultipartFile file) {")
+                    .append(config.getStreamUpload() ? "return " : "").append(entityServiceName).append(".upload(file);}")
+                    .append("@ApiOperation(\"数据下载\") @PostMapping(\"/download\") public void download(@RequestBody ")
+                    .append(queryName);
+
+            // 流式下载直接写到响应流中
+            if (config.getStreamDownload()) {
+                content.append(" query, HttpServletResponse response) throws IOException {")
+                        .append("response.setContentType(\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet\");")
+                        .append("response.setHeader(\"Content-Disposition\", \"attachment;filename=data.xlsx\");")
+                        .append(entityServiceName).append(".download(query, response.getOutputStream()); }");
+            } else {
+                content.append(" query, HttpServletResponse response) { ExcelUtils.writeExcelToResponse(").append(entityServiceName).append(".download(query), response, \"data.xlsx\"); }");
+            }
+        }
+
+        content.append("}");
+
+        return content.toString();
+    }
+}
@@ -0,0 +1,78 @@
+package com.liuqi.tool.idea.plugin.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * DTO属性上的注解
+ * 根据实体属性的类型及Column注解中的columnDefinition生成校验及格式化注解，
+ * Column注解的length及nullable属性不生成校验注解
+ *
+ * @author LiuQi 2020/6/8-10:40
+ * @version V1.0
+ **/
+public final class DtoFieldAnnotations {
+    private final String text;
+    private final List<String> imports;
+
+    private DtoFieldAnnotations(String text, List<String> imports) {
+        this.text = text;
+        this.imports = Collections.unmodifiableList(imports);
+    }
+
+    /**
+     * 生成属性注解
+     *
+     * @param field 实体属性
+     * @return 注解信息
+     */
+    public static DtoFieldAnnotations of(FieldModel field) {
+        String typeName = field.getTypeName();
+        StringBuilder annotationStringBuilder = new StringBuilder("");
+        List<String> imports = new ArrayList<>(2);
+
+        // 只有字符串的时候才添加长度限制
+        if (typeName.equals("String") && null != field.getDefinitionLength()) {
+            annotationStringBuilder.append("@Length(max = ").append(field.getDefinitionLength()).append(") ");
+            imports.add("org.hibernate.validator.constraints.Length");
+        }
+
+        // 如果是not null，需要加上NotNull校验 javax.validation.constraints
+        if (field.isDefinitionNotNull() && !typeName.toLowerCase().contains("type")
+                && !typeName.toLowerCase().equals("localdatetime")
+                && !typeName.toLowerCase().equals("localdate")) {
+            if (typeName.equals("String")) {
+                annotationStringBuilder.append("@NotBlank ");
+                imports.add("org.hibernate.validator.constraints.NotBlank");
+            } else {
+                annotationStringBuilder.append("@NotNull ");
+                imports.add("javax.validation.constraints.NotNull");
+            }
+        }
+
+        if (typeName.equalsIgnoreCase("localdate")) {
+            annotationStringBuilder.append("@JsonFormat(pattern = \"yyyy-MM-dd\") ");
+            imports.add("com.fasterxml.jackson.annotation.JsonFormat");
+        } else if (typeName.equalsIgnoreCase("localdatetime")) {
+            annotationStringBuilder.append("@JsonFormat(pattern = \"yyyy-MM-dd HH:mm:ss\") ");
+            imports.add("com.fasterxml.jackson.annotation.JsonFormat");
+        }
+
+        return new DtoFieldAnnotations(annotationStringBuilder.toString(), imports);
+    }
+
+    /**
+     * 注解文本，每个注解后带有一个空格
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * 注解所需要导入的类全名
+     */
+    public List<String> getImports() {
+        return imports;
+    }
+}
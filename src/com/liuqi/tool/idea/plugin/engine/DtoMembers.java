@@ -0,0 +1,77 @@
+package com.liuqi.tool.idea.plugin.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * DTO类的属性及方法
+ * 根据实体属性生成DTO中的属性声明（含校验注解）以及每个属性的Getter与Setter方法，
+ * IDE中由ClassCreator复制属性时使用，命令行生成时由DtoRenderer使用；
+ * 所有属性及方法只拼接一次，耗时随属性数量线性增长
+ *
+ * @author LiuQi 2020/6/21-9:40
+ * @version V1.0
+ **/
+public final class DtoMembers {
+    private final String text;
+    private final List<String> imports;
+
+    private DtoMembers(String text, List<String> imports) {
+        this.text = text;
+        this.imports = Collections.unmodifiableList(imports);
+    }
+
+    /**
+     * 生成属性及方法
+     *
+     * @param className        DTO类名称
+     * @param fields           实体属性
+     * @param disposedFields   不需要复制的属性名称
+     * @param fieldAnnotations 每个属性上都需要增加的注解的简单名称，如ExcelField
+     * @return 属性及方法
+     */
+    public static DtoMembers of(String className, List<FieldModel> fields, List<String> disposedFields,
+                                List<String> fieldAnnotations) {
+        List<String> imports = new ArrayList<>(fields.size());
+        StringBuilder members = new StringBuilder(fields.size() * 64);
+        StringBuilder methods = new StringBuilder(fields.size() * 256);
+        for (FieldModel field : fields) {
+            String name = field.getName();
+            if (disposedFields.contains(name)) {
+                continue;
+            }
+
+            imports.add(field.getTypeQualifiedName());
+            String typeName = field.getTypeName();
+
+            fieldAnnotations.forEach(annotation -> members.append("@").append(annotation).append(" "));
+
+            // 添加校验注解
+            DtoFieldAnnotations annotations = DtoFieldAnnotations.of(field);
+            members.append(annotations.getText());
+            imports.addAll(annotations.getImports());
+
+            members.append("private ").append(typeName).append(" ").append(name).append(";\n");
+
+            // 针对每一个属性生成三个方法
+            methods.append(AccessorTemplates.createAll(className, name, typeName));
+        }
+
+        return new DtoMembers(members.append(methods).toString(), imports);
+    }
+
+    /**
+     * 属性及方法的文本，属性在前，方法在后
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * 属性类型及校验注解需要导入的类的全名，可能包含java.lang中的类及基本类型
+     */
+    public List<String> getImports() {
+        return imports;
+    }
+}
@@ -0,0 +1,87 @@
+package com.liuqi.tool.idea.plugin.engine;
+
+import java.util.*;
+
+/**
+ * DTO对象生成器
+ * 生成包含package及import部分的完整DTO类，用于命令行生成；在IDE中生成时属性由ClassCreator复制，
+ * 两者都通过DtoMembers生成属性及Getter与Setter方法。
+ *
+ * @author LiuQi 2020/6/9-11:20
+ * @version V1.0
+ **/
+public final class DtoRenderer {
+    private DtoRenderer() {
+    }
+
+    /**
+     * 获取DTO类中不需要包含的属性
+     *
+     * @param name DTO类型，可以为空、Add或者Update
+     * @return 需要过滤掉的属性名称
+     */
+    public static List<String> getDisposedFields(String name) {
+        // 过滤掉一些不必要的字段
+        List<String> disposedFields = new ArrayList<>();
+        if ("Add".equals(name) || "Update".equals(name)) {
+            disposedFields.addAll(Arrays.asList("deleted", "createTime", "userId", "userName", "updateTime", "userPhoto"));
+            if ("Add".equals(name)) {
+                disposedFields.add("id");
+            }
+        }
+
+        return disposedFields;
+    }
+
+    /**
+     * 获取DTO类中包含的属性名称
+     *
+     * @param model 实体信息
+     * @param name  DTO类型，可以为空、Add或者Update
+     * @return 属性名称
+     */
+    public static List<String> getFieldNames(EntityModel model, String name) {
+        List<String> disposedFields = getDisposedFields(name);
+        List<String> result = new ArrayList<>(model.getFields().size());
+        model.getFields().stream()
+                .map(FieldModel::getName)
+                .filter(fieldName -> !disposedFields.contains(fieldName))
+                .forEach(result::add);
+        return result;
+    }
+
+    /**
+     * 生成DTO类
+     *
+     * @param model            实体信息
+     * @param packageName      DTO类所在包
+     * @param name             DTO类型，可以为空、Add或者Update
+     * @param fieldAnnotations 每个属性上都需要增加的注解的类全名，如Excel导入导出注解
+     * @return DTO类源码
+     */
+    public static String render(EntityModel model, String packageName, String name, List<String> fieldAnnotations) {
+        String className = model.getEntityName() + name + "DTO";
+        List<String> disposedFields = getDisposedFields(name);
+
+        Set<String> imports = new TreeSet<>();
+        imports.add("lombok.Data");
+        fieldAnnotations.forEach(imports::add);
+
+        List<String> annotationNames = new ArrayList<>(fieldAnnotations.size());
+        fieldAnnotations.forEach(annotation -> annotationNames.add(annotation.substring(annotation.lastIndexOf(".") + 1)));
+        DtoMembers members = DtoMembers.of(className, model.getFields(), disposedFields, annotationNames);
+        members.getImports().stream()
+                .filter(qualifiedName -> qualifiedName.contains(".") && !qualifiedName.startsWith("java.lang."))
+                .forEach(imports::add);
+
+        StringBuilder content = new StringBuilder("package ").append(packageName).append(";\n\n");
+        imports.forEach(qualifiedName -> content.append("import ").append(qualifiedName).append(";\n"));
+        content.append("\n")
+                .append(model.getComment().getContent("对象", FingerprintTags.of(model, getFieldNames(model, name))))
+                .append("\n@Data\npublic class ").append(className).append("{")
+                .append(members.getText())
+                .append("}");
+
+        return JavaSourceFormatter.format(content.toString());
+    }
+}
@@ -0,0 +1,111 @@
+package com.liuqi.tool.idea.plugin.engine;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 实体类信息
+ * 不依赖IDE，既可以从PSI中生成，也可以直接从实体类源码中解析得到
+ *
+ * @author LiuQi 2020/6/8-10:25
+ * @version V1.0
+ **/
+public final class EntityModel {
+    private final String packageName;
+    private final String className;
+    private final String tableName;
+    private final CodeComment comment;
+    private final List<FieldModel> fields;
+    private final List<FieldModel> allFields;
+
+    /**
+     * @param packageName 实体类所在包
+     * @param className   实体类名称
+     * @param tableName   Table注解中的表名
+     * @param comment     注释信息
+     * @param fields      实体类中声明的属性
+     * @param allFields   包含父类属性在内的所有属性
+     */
+    public EntityModel(String packageName, String className, String tableName, CodeComment comment,
+                       List<FieldModel> fields, List<FieldModel> allFields) {
+        this.packageName = packageName;
+        this.className = className;
+        this.tableName = tableName;
+        this.comment = comment;
+        this.fields = Collections.unmodifiableList(fields);
+        this.allFields = Collections.unmodifiableList(allFields);
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * 获取实体名称，即去掉Entity后缀后的类名，生成的各个类都以此为前缀
+     */
+    public String getEntityName() {
+        return className.replace("Entity", "");
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public CodeComment getComment() {
+        return comment;
+    }
+
+    public List<FieldModel> getFields() {
+        return fields;
+    }
+
+    public List<FieldModel> getAllFields() {
+        return allFields;
+    }
+
+    /**
+     * 获取实体的指纹
+     * 由表名及所有属性的名称、类型、列名、列定义、长度、是否大字段等计算得到，任何一项变化时指纹都会变化，用于增量生成时判断是否需要更新已生成的文件
+     *
+     * @return 16位十六进制字符串
+     */
+    public String getFingerprint() {
+        StringBuilder text = new StringBuilder(tableName).append("\n");
+        for (FieldModel field : allFields) {
+            text.append(field.getName()).append(":")
+                    .append(field.getTypeQualifiedName()).append(":")
+                    .append(field.getColumnName()).append(":")
+                    .append(field.getColumnDefinition()).append(":")
+                    .append(field.getLength()).append(":")
+                    .append(field.isNullable()).append(":")
+                    .append(field.isEnumType()).append(":")
+                    .append(field.isLob()).append("\n");
+        }
+
+        // 区分属性是在实体类中声明还是从父类继承
+        text.append(fields.size());
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder result = new StringBuilder(16);
+            for (int i = 0; i < 8; i++) {
+                result.append(String.format("%02x", digest[i]));
+            }
+
+            return result.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public boolean hasField(String name) {
+        return fields.stream().anyMatch(field -> field.getName().equals(name));
+    }
+}
@@ -0,0 +1,520 @@
+package com.liuqi.tool.idea.plugin.engine;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 实体类源码解析器
+ * 不依赖IDE，只解析代码生成所需要的信息：包名、导入、类名、父类、类注解及属性；
+ * 先通过{@link #parse(String)}解析源码树中的所有类，再通过{@link #toEntityModel(SourceClass)}生成实体信息，
+ * 属性类型是否为枚举、父类中的属性等都从已解析的类中查找。
+ * 解析可以在多个线程中同时进行。
+ *
+ * @author LiuQi 2020/6/9-9:30
+ * @version V1.0
+ **/
+public final class EntitySourceParser {
+    private static final Pattern PACKAGE_PATTERN = Pattern.compile("\\bpackage\\s+([\\w.]+)\\s*;");
+    private static final Pattern IMPORT_PATTERN = Pattern.compile("\\bimport\\s+(static\\s+)?([\\w.]+?)(\\.\\*)?\\s*;");
+    private static final Pattern TYPE_PATTERN = Pattern.compile("\\b(class|enum|interface|@interface)\\s+(\\w+)");
+    private static final Pattern EXTENDS_PATTERN = Pattern.compile("^\\s*(?:<.*?>\\s*)?extends\\s+([\\w.]+)");
+    private static final Pattern ATTRIBUTE_PATTERN = Pattern.compile("\\b(\\w+)\\s*=\\s*(\"(?:[^\"\\\\]|\\\\.)*\"|[\\w.]+)");
+    private static final Pattern VALUE_PATTERN = Pattern.compile("^\\(\\s*(\"(?:[^\"\\\\]|\\\\.)*\")\\s*\\)$");
+    private static final List<String> COLUMN_ATTRIBUTES = Arrays.asList("name", "columnDefinition", "length", "nullable");
+    private static final Set<String> MODIFIERS = new HashSet<>(Arrays.asList("public", "protected", "private",
+            "static", "final", "transient", "volatile"));
+    private static final Set<String> JAVA_LANG_CLASSES = new HashSet<>(Arrays.asList("String", "Integer", "Long",
+            "Short", "Byte", "Double", "Float", "Boolean", "Character", "Object", "Number"));
+
+    /**
+     * 所有已解析的类，Key为类全名
+     */
+    private final Map<String, SourceClass> classes = new ConcurrentHashMap<>(256);
+
+    /**
+     * 解析源码并记录其中的类
+     *
+     * @param source 源码
+     * @return 解析得到的类，源码中没有类定义时返回null
+     */
+    public SourceClass parse(String source) {
+        String code = removeComments(source);
+
+        Matcher typeMatcher = TYPE_PATTERN.matcher(code);
+        if (!typeMatcher.find()) {
+            return null;
+        }
+
+        SourceClass sourceClass = new SourceClass();
+        Matcher packageMatcher = PACKAGE_PATTERN.matcher(code);
+        sourceClass.packageName = packageMatcher.find() ? packageMatcher.group(1) : "";
+
+        Matcher importMatcher = IMPORT_PATTERN.matcher(code.substring(0, typeMatcher.start()));
+        while (importMatcher.find()) {
+            if (null != importMatcher.group(1)) {
+                continue;
+            }
+
+            String name = importMatcher.group(2);
+            if (null != importMatcher.group(3)) {
+                sourceClass.wildcardImports.add(name);
+            } else {
+                sourceClass.imports.put(name.substring(name.lastIndexOf(".") + 1), name);
+            }
+        }
+
+        sourceClass.kind = typeMatcher.group(1);
+        sourceClass.name = typeMatcher.group(2);
+
+        // 类注解位于最后一个import语句与类定义之间
+        int headerStart = Math.max(code.lastIndexOf(";", typeMatcher.start()) + 1, 0);
+        sourceClass.annotations = parseAnnotations(code.substring(headerStart, typeMatcher.start()));
+
+        int bodyStart = code.indexOf("{", typeMatcher.end());
+        if (-1 == bodyStart) {
+            return null;
+        }
+
+        Matcher extendsMatcher = EXTENDS_PATTERN.matcher(code.substring(typeMatcher.end(), bodyStart));
+        if (extendsMatcher.find()) {
+            sourceClass.superName = extendsMatcher.group(1);
+        }
+
+        sourceClass.fields = parseFields(code, bodyStart + 1);
+        classes.put(sourceClass.getQualifiedName(), sourceClass);
+        return sourceClass;
+    }
+
+    /**
+     * 根据已解析的类生成实体信息
+     *
+     * @param sourceClass 被Entity注解的类
+     * @return 实体信息
+     */
+    public EntityModel toEntityModel(SourceClass sourceClass) {
+        String tableName = Optional.ofNullable(sourceClass.annotations.get("Table"))
+                .map(annotation -> getAttribute(annotation, "name"))
+                .orElse("tableName")
+                .replaceAll("\"", "");
+
+        String text = null;
+        String author = null;
+        String commentAnnotation = sourceClass.annotations.get("Comment");
+        if (null != commentAnnotation) {
+            text = Optional.ofNullable(getAttribute(commentAnnotation, "value"))
+                    .orElseGet(() -> Optional.ofNullable(getAttribute(commentAnnotation, "entityName")).orElse(""))
+                    .replace("\"", "");
+            author = Optional.ofNullable(getAttribute(commentAnnotation, "author")).orElse("EntityCodeGenerator")
+                    .replace("\"", "");
+        }
+
+        List<FieldModel> fields = toFieldModels(sourceClass);
+        List<FieldModel> allFields = new ArrayList<>(fields);
+        Set<String> visited = new HashSet<>();
+        SourceClass superClass = resolveClass(sourceClass, sourceClass.superName);
+        while (null != superClass && visited.add(superClass.getQualifiedName())) {
+            allFields.addAll(toFieldModels(superClass));
+            superClass = resolveClass(superClass, superClass.superName);
+        }
+
+        return new EntityModel(sourceClass.packageName, sourceClass.name, tableName, new CodeComment(text, author),
+                fields, allFields);
+    }
+
+    /**
+     * 根据简单类名查找已解析的类的全名
+     *
+     * @param simpleName 简单类名
+     * @return 找到多个时返回任意一个，没有找到时返回空
+     */
+    public Optional<String> findQualifiedName(String simpleName) {
+        return classes.values().stream()
+                .filter(sourceClass -> sourceClass.name.equals(simpleName))
+                .map(SourceClass::getQualifiedName)
+                .findFirst();
+    }
+
+    private List<FieldModel> toFieldModels(SourceClass sourceClass) {
+        List<FieldModel> result = new ArrayList<>(sourceClass.fields.size());
+        for (SourceField field : sourceClass.fields) {
+            String rawType = field.type.replaceAll("<.*>", "").replace("[]", "").trim();
+            String typeQualifiedName = resolveTypeName(sourceClass, rawType);
+            SourceClass typeClass = classes.get(typeQualifiedName);
+            boolean enumType = null != typeClass && "enum".equals(typeClass.kind);
+
+            Map<String, String> columnAttributes = new HashMap<>(4);
+            String column = field.annotations.get("Column");
+            if (null != column) {
+                for (String attribute : COLUMN_ATTRIBUTES) {
+                    Optional.ofNullable(getAttribute(column, attribute))
+                            .ifPresent(value -> columnAttributes.put(attribute, value));
+                }
+            }
+
+            // 与PSI中一致，属性类型只使用简单名称
+            String typeName = field.type.replaceAll("\\b(?:[a-z_]\\w*\\.)+", "");
+            result.add(new FieldModel(field.name, typeName, typeQualifiedName, columnAttributes, enumType,
+                    field.annotations.containsKey("Lob")));
+        }
+
+        return result;
+    }
+
+    private SourceClass resolveClass(SourceClass context, String name) {
+        if (null == name) {
+            return null;
+        }
+
+        return classes.get(resolveTypeName(context, name));
+    }
+
+    /**
+     * 按Java的查找顺序获取类型的全名：单类导入、同包类、java.lang、通配符导入
+     */
+    private String resolveTypeName(SourceClass context, String name) {
+        if (name.contains(".") || Character.isLowerCase(name.charAt(0))) {
+            return name;
+        }
+
+        String imported = context.imports.get(name);
+        if (null != imported) {
+            return imported;
+        }
+
+        String samePackage = context.packageName.isEmpty() ? name : context.packageName + "." + name;
+        if (classes.containsKey(samePackage)) {
+            return samePackage;
+        }
+
+        if (JAVA_LANG_CLASSES.contains(name)) {
+            return "java.lang." + name;
+        }
+
+        for (String wildcardImport : context.wildcardImports) {
+            String qualifiedName = wildcardImport + "." + name;
+            if (classes.containsKey(qualifiedName)) {
+                return qualifiedName;
+            }
+        }
+
+        return name;
+    }
+
+    /**
+     * 获取注解中属性的原始文本，只有一个值且未指定属性名时作为value属性
+     */
+    private static String getAttribute(String annotation, String attribute) {
+        Matcher matcher = ATTRIBUTE_PATTERN.matcher(annotation);
+        while (matcher.find()) {
+            if (matcher.group(1).equals(attribute)) {
+                return matcher.group(2);
+            }
+        }
+
+        if ("value".equals(attribute)) {
+            Matcher valueMatcher = VALUE_PATTERN.matcher(annotation.substring(Math.max(annotation.indexOf("("), 0)));
+            if (valueMatcher.find()) {
+                return valueMatcher.group(1);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * 解析类体中直接声明的属性，方法、初始化块及内部类都会被跳过
+     */
+    private static List<SourceField> parseFields(String code, int start) {
+        List<SourceField> fields = new ArrayList<>();
+        StringBuilder statement = new StringBuilder();
+        int parenDepth = 0;
+        for (int i = start; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if ('"' == c || '\'' == c) {
+                int end = skipLiteral(code, i);
+                statement.append(code, i, end);
+                i = end - 1;
+                continue;
+            }
+
+            if ('(' == c) {
+                parenDepth++;
+            } else if (')' == c) {
+                parenDepth--;
+            } else if (0 == parenDepth && '{' == c) {
+                // 方法体、初始化块或者内部类，跳过整个代码块
+                i = skipBlock(code, i) - 1;
+                statement.setLength(0);
+                continue;
+            } else if (0 == parenDepth && '}' == c) {
+                break;
+            } else if (0 == parenDepth && ';' == c) {
+                fields.addAll(parseFieldStatement(statement.toString()));
+                statement.setLength(0);
+                continue;
+            }
+
+            statement.append(c);
+        }
+
+        return fields;
+    }
+
+    private static List<SourceField> parseFieldStatement(String statement) {
+        Map<String, String> annotations = new HashMap<>(4);
+        String declaration = removeAnnotations(statement, annotations).trim();
+
+        // 一条语句中可能声明多个属性，如private String a, b = "b";
+        List<String> declarators = splitDeclarators(declaration);
+        String first = removeInitializer(declarators.get(0));
+        if (first.isEmpty() || first.contains("(")) {
+            return Collections.emptyList();
+        }
+
+        // 去掉修饰符，与PSI中的getFields一致，静态属性同样保留
+        List<String> tokens = new ArrayList<>(Arrays.asList(first.split("\\s+")));
+        while (!tokens.isEmpty() && MODIFIERS.contains(tokens.get(0))) {
+            tokens.remove(0);
+        }
+
+        if (tokens.size() < 2) {
+            return Collections.emptyList();
+        }
+
+        String type = String.join(" ", tokens.subList(0, tokens.size() - 1)).replaceAll("\\s*([<>,])\\s*", "$1")
+                .replace(",", ", ");
+        List<String> names = new ArrayList<>(declarators.size());
+        names.add(tokens.get(tokens.size() - 1));
+        declarators.subList(1, declarators.size()).forEach(declarator -> names.add(removeInitializer(declarator)));
+
+        List<SourceField> fields = new ArrayList<>(names.size());
+        for (String name : names) {
+            // 数组维度可以写在属性名之后，如String a[]
+            String dimensions = "";
+            int dimensionIdx = name.indexOf("[");
+            if (-1 != dimensionIdx) {
+                dimensions = name.substring(dimensionIdx).replaceAll("\\s+", "");
+                name = name.substring(0, dimensionIdx).trim();
+            }
+
+            if (name.isEmpty()) {
+                continue;
+            }
+
+            SourceField field = new SourceField();
+            field.name = name;
+            field.type = type + dimensions;
+            field.annotations = annotations;
+            fields.add(field);
+        }
+
+        return fields;
+    }
+
+    /**
+     * 按不在泛型、括号及字符串中的逗号拆分属性声明
+     */
+    private static List<String> splitDeclarators(String declaration) {
+        List<String> result = new ArrayList<>(1);
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < declaration.length(); i++) {
+            char c = declaration.charAt(i);
+            if ('"' == c || '\'' == c) {
+                i = skipLiteral(declaration, i) - 1;
+            } else if ('<' == c || '(' == c || '{' == c || '[' == c) {
+                depth++;
+            } else if ('>' == c || ')' == c || '}' == c || ']' == c) {
+                // 初始化表达式中的比较运算符不能使层级变为负数
+                depth = Math.max(depth - 1, 0);
+            } else if (0 == depth && ',' == c) {
+                result.add(declaration.substring(start, i));
+                start = i + 1;
+            }
+        }
+
+        result.add(declaration.substring(start));
+        return result;
+    }
+
+    private static String removeInitializer(String declarator) {
+        int assignIdx = declarator.indexOf("=");
+        return (-1 == assignIdx ? declarator : declarator.substring(0, assignIdx)).trim();
+    }
+
+    private static Map<String, String> parseAnnotations(String text) {
+        Map<String, String> annotations = new HashMap<>(4);
+        removeAnnotations(text, annotations);
+        return annotations;
+    }
+
+    /**
+     * 去掉文本中的注解，并将注解按简单名称记录下来
+     */
+    private static String removeAnnotations(String text, Map<String, String> annotations) {
+        StringBuilder result = new StringBuilder();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if ('@' != c || text.startsWith("@interface", i)) {
+                result.append(c);
+                i++;
+                continue;
+            }
+
+            int nameEnd = i + 1;
+            while (nameEnd < text.length() && (Character.isJavaIdentifierPart(text.charAt(nameEnd)) || '.' == text.charAt(nameEnd))) {
+                nameEnd++;
+            }
+
+            String name = text.substring(i + 1, nameEnd);
+            int end = nameEnd;
+            while (end < text.length() && Character.isWhitespace(text.charAt(end))) {
+                end++;
+            }
+
+            if (end < text.length() && '(' == text.charAt(end)) {
+                end = skipParentheses(text, end);
+            } else {
+                end = nameEnd;
+            }
+
+            annotations.put(name.substring(name.lastIndexOf(".") + 1), text.substring(i, end));
+            result.append(' ');
+            i = end;
+        }
+
+        return result.toString();
+    }
+
+    private static int skipParentheses(String text, int start) {
+        int depth = 0;
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if ('"' == c || '\'' == c) {
+                i = skipLiteral(text, i) - 1;
+            } else if ('(' == c) {
+                depth++;
+            } else if (')' == c && 0 == --depth) {
+                return i + 1;
+            }
+        }
+
+        return text.length();
+    }
+
+    private static int skipBlock(String text, int start) {
+        int depth = 0;
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if ('"' == c || '\'' == c) {
+                i = skipLiteral(text, i) - 1;
+            } else if ('{' == c) {
+                depth++;
+            } else if ('}' == c && 0 == --depth) {
+                return i + 1;
+            }
+        }
+
+        return text.length();
+    }
+
+    /**
+     * 跳过字符串或字符字面量
+     *
+     * @return 字面量结束后的位置
+     */
+    private static int skipLiteral(String text, int start) {
+        char quote = text.charAt(start);
+        for (int i = start + 1; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if ('\\' == c) {
+                i++;
+            } else if (quote == c) {
+                return i + 1;
+            }
+        }
+
+        return text.length();
+    }
+
+    /**
+     * 去掉源码中的注释，字符串中的内容保持不变
+     */
+    private static String removeComments(String source) {
+        StringBuilder result = new StringBuilder(source.length());
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if ('"' == c || '\'' == c) {
+                int end = skipLiteral(source, i);
+                result.append(source, i, end);
+                i = end;
+            } else if (source.startsWith("//", i)) {
+                int end = source.indexOf("\n", i);
+                i = -1 == end ? source.length() : end;
+            } else if (source.startsWith("/*", i)) {
+                int end = source.indexOf("*/", i + 2);
+                i = -1 == end ? source.length() : end + 2;
+                result.append(' ');
+            } else {
+                result.append(c);
+                i++;
+            }
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * 解析得到的类
+     */
+    public static final class SourceClass {
+        private String packageName;
+        private String name;
+        private String kind;
+        private String superName;
+        private final Map<String, String> imports = new HashMap<>(16);
+        private final List<String> wildcardImports = new ArrayList<>(4);
+        private Map<String, String> annotations;
+        private List<SourceField> fields;
+
+        public String getPackageName() {
+            return packageName;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getQualifiedName() {
+            return packageName.isEmpty() ? name : packageName + "." + name;
+        }
+
+        /**
+         * 判断是否被指定注解
+         *
+         * @param qualifiedName 注解全名
+         */
+        public boolean hasAnnotation(String qualifiedName) {
+            String simpleName = qualifiedName.substring(qualifiedName.lastIndexOf(".") + 1);
+            String annotation = annotations.get(simpleName);
+            if (null == annotation) {
+                return false;
+            }
+
+            String packageName = qualifiedName.substring(0, qualifiedName.lastIndexOf("."));
+            return annotation.startsWith("@" + qualifiedName)
+                    || qualifiedName.equals(imports.get(simpleName))
+                    || wildcardImports.contains(packageName);
+        }
+    }
+
+    private static final class SourceField {
+        private String name;
+        private String type;
+        private Map<String, String> annotations;
+    }
+}
@@ -0,0 +1,166 @@
+package com.liuqi.tool.idea.plugin.engine;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.util.*;
+
+/**
+ * 流式上传Excel相关代码的生成器
+ * 生成以SAX方式逐行读取Excel的公共读取器，以及将表头与单元格值组成的行数据转换成DTO的方法
+ *
+ * @author LiuQi 2020/6/15-9:40
+ * @version V1.0
+ **/
+public final class ExcelUploadRenderer {
+    /**
+     * 公共读取器类名
+     */
+    public static final String READER_NAME = "ExcelBatchReader";
+
+    /**
+     * 公共读取器需要导入的类
+     */
+    public static final List<String> READER_IMPORTS = Collections.unmodifiableList(Arrays.asList(
+            "java.io.IOException", "java.io.InputStream", "java.util.ArrayList", "java.util.HashMap",
+            "java.util.List", "java.util.Map", "java.util.function.BiConsumer",
+            "javax.xml.parsers.ParserConfigurationException", "javax.xml.parsers.SAXParserFactory",
+            "org.apache.poi.openxml4j.exceptions.OpenXML4JException", "org.apache.poi.openxml4j.opc.OPCPackage",
+            "org.apache.poi.ss.usermodel.DataFormatter", "org.apache.poi.ss.util.CellReference",
+            "org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable", "org.apache.poi.xssf.eventusermodel.XSSFReader",
+            "org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler", "org.apache.poi.xssf.usermodel.XSSFComment",
+            "org.xml.sax.InputSource", "org.xml.sax.SAXException", "org.xml.sax.XMLReader"));
+
+    private ExcelUploadRenderer() {
+    }
+
+    /**
+     * 生成公共读取器
+     * 只读取第一个工作表，第一行作为表头，之后的每一行以表头为Key传给行处理器，整个文件不会加载到内存中
+     *
+     * @return 读取器类内容，不包含package及import部分
+     */
+    public static String renderReader() {
+        return "/**\n * Excel流式读取器\n * 以SAX方式逐行读取第一个工作表，第一行作为表头\n **/" +
+                "\npublic class " + READER_NAME + " implements XSSFSheetXMLHandler.SheetContentsHandler {" +
+                "private final BiConsumer<Integer, Map<String, String>> rowHandler;" +
+                "private final List<String> headers = new ArrayList<>();" +
+                "private boolean headerRow = true; private int lastColumn; private Map<String, String> currentRow;" +
+                "\nprivate " + READER_NAME + "(BiConsumer<Integer, Map<String, String>> rowHandler) { this.rowHandler = rowHandler; }" +
+                "\n/** 读取Excel，rowHandler的参数为从0开始的行号及以表头为Key的单元格值 */" +
+                "\npublic static void read(InputStream inputStream, BiConsumer<Integer, Map<String, String>> rowHandler) throws IOException {" +
+                "try (OPCPackage opcPackage = OPCPackage.open(inputStream)) {" +
+                "XSSFReader reader = new XSSFReader(opcPackage);" +
+                "XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();" +
+                "if (!sheets.hasNext()) { return; }" +
+                "SAXParserFactory factory = SAXParserFactory.newInstance(); factory.setNamespaceAware(true);" +
+                "XMLReader xmlReader = factory.newSAXParser().getXMLReader();" +
+                "xmlReader.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), new ReadOnlySharedStringsTable(opcPackage), " +
+                "new " + READER_NAME + "(rowHandler), new DataFormatter(), false));" +
+                "try (InputStream sheet = sheets.next()) { xmlReader.parse(new InputSource(sheet)); }" +
+                "} catch (OpenXML4JException | SAXException | ParserConfigurationException e) { throw new IOException(e); } }" +
+                "\n@Override public void startRow(int rowNum) { currentRow = new HashMap<>(); lastColumn = -1; }" +
+                "\n@Override public void endRow(int rowNum) { if (headerRow) { headerRow = false; return; }" +
+                "if (!currentRow.isEmpty()) { rowHandler.accept(rowNum, currentRow); } }" +
+                "\n@Override public void cell(String cellReference, String formattedValue, XSSFComment comment) {" +
+                "int column = null == cellReference ? lastColumn + 1 : new CellReference(cellReference).getCol(); lastColumn = column;" +
+                "if (headerRow) { while (headers.size() <= column) { headers.add(null); } headers.set(column, formattedValue.trim()); }" +
+                "else if (column < headers.size() && null != headers.get(column)) { currentRow.put(headers.get(column), formattedValue); } }" +
+                "\n@Override public void headerFooter(String text, boolean isHeader, String tagName) { }" +
+                "}";
+    }
+
+    /**
+     * 获取Excel中的列标题，有列注释时使用列注释，否则使用属性名称
+     *
+     * @param field 实体属性
+     * @return 列标题
+     */
+    public static String getTitle(FieldModel field) {
+        return StringUtils.defaultIfBlank(field.getComment(), field.getName());
+    }
+
+    /**
+     * 生成将行数据转换成DTO的方法
+     * 按列标题或属性名称取值，不支持转换的类型不设置；转换失败时抛出的异常由调用方记录为该行的错误
+     *
+     * @param model      实体信息
+     * @param dtoName    DTO类名
+     * @param fieldNames DTO中包含的属性
+     * @param imports    转换时需要导入的类，生成时添加
+     * @return 方法内容
+     */
+    public static String renderConverter(EntityModel model, String dtoName, List<String> fieldNames, Set<String> imports) {
+        StringBuilder content = new StringBuilder("\nprivate static ")
+                .append(dtoName).append(" toUploadDto(Map<String, String> row) {")
+                .append(dtoName).append(" dto = new ").append(dtoName).append("(); String value;");
+
+        for (FieldModel field : model.getFields()) {
+            if (!fieldNames.contains(field.getName())) {
+                continue;
+            }
+
+            String conversion = getConversion(field, imports);
+            if (null == conversion) {
+                continue;
+            }
+
+            // 没有以列标题为表头的列时按属性名称取值
+            String title = getTitle(field).replace("\"", "\\\"");
+            if (title.equals(field.getName())) {
+                content.append("value = row.get(\"").append(title).append("\");");
+            } else {
+                content.append("value = row.containsKey(\"").append(title).append("\") ? row.get(\"").append(title)
+                        .append("\") : row.get(\"").append(field.getName()).append("\");");
+            }
+
+            content.append("if (null != value && !value.trim().isEmpty()) { dto.set")
+                    .append(StringUtils.capitalize(field.getName())).append("(").append(conversion).append("); }");
+        }
+
+        content.append("return dto; }");
+        return content.toString();
+    }
+
+    /**
+     * 获取将单元格文本转换成属性类型的表达式，不支持的类型返回null
+     */
+    private static String getConversion(FieldModel field, Set<String> imports) {
+        if (field.isEnumType()) {
+            return field.getTypeQualifiedName() + ".valueOf(value.trim())";
+        }
+
+        switch (field.getTypeName()) {
+            case "String":
+                return "value";
+            case "Long":
+            case "long":
+                return "Long.valueOf(value.trim())";
+            case "Integer":
+            case "int":
+                return "Integer.valueOf(value.trim())";
+            case "Short":
+            case "short":
+                return "Short.valueOf(value.trim())";
+            case "Double":
+            case "double":
+                return "Double.valueOf(value.trim())";
+            case "Float":
+            case "float":
+                return "Float.valueOf(value.trim())";
+            case "Boolean":
+            case "boolean":
+                return "\"true\".equalsIgnoreCase(value.trim()) || \"是\".equals(value.trim()) || \"1\".equals(value.trim())";
+            case "BigDecimal":
+                imports.add("java.math.BigDecimal");
+                return "new BigDecimal(value.trim())";
+            case "LocalDate":
+                imports.add("java.time.LocalDate");
+                return "LocalDate.parse(value.trim())";
+            case "LocalDateTime":
+                imports.add("java.time.LocalDateTime");
+                return "LocalDateTime.parse(value.trim().replace(' ', 'T'))";
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.liuqi.tool.idea.plugin.engine;
+
+import com.liuqi.tool.idea.plugin.utils.MyStringUtils;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 实体属性信息
+ * 列名、SQL类型、长度、是否可为空及列注释都在创建时从Column注解中解析一次，各生成器直接使用
+ *
+ * @author LiuQi 2020/6/8-10:20
+ * @version V1.0
+ **/
+public final class FieldModel {
+    private static final Pattern SQL_TYPE_PATTERN = Pattern.compile("^\\s*(\\w+)");
+    private static final Pattern LENGTH_PATTERN = Pattern.compile("char\\s*\\(\\s*(\\d+)\\s*\\)");
+    private static final Pattern COMMENT_PATTERN = Pattern.compile("comment\\s+'([^']*)'", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * 大字段对应的SQL类型
+     */
+    private static final List<String> LARGE_SQL_TYPES = Arrays.asList("text", "mediumtext", "longtext", "tinyblob",
+            "blob", "mediumblob", "longblob", "clob", "json");
+
+    private final String name;
+    private final String typeName;
+    private final String typeQualifiedName;
+    private final String columnName;
+    private final String columnDefinition;
+    private final String sqlType;
+    private final Integer length;
+    private final Integer definitionLength;
+    private final boolean nullable;
+    private final boolean definitionNotNull;
+    private final String comment;
+    private final boolean enumType;
+    private final boolean lob;
+
+    /**
+     * @param name              属性名称
+     * @param typeName          属性类型的简单名称
+     * @param typeQualifiedName 属性类型的全名
+     * @param column            Column注解中显式指定的属性的原始文本（字符串包含引号），Key为属性名称，
+     *                          如name、columnDefinition、length、nullable；没有Column注解时为空
+     * @param enumType          属性类型是否为枚举
+     * @param lob               属性是否有Lob注解
+     */
+    public FieldModel(String name, String typeName, String typeQualifiedName, Map<String, String> column, boolean enumType,
+                      boolean lob) {
+        this.name = name;
+        this.typeName = typeName;
+        this.typeQualifiedName = typeQualifiedName;
+        this.enumType = enumType;
+        this.lob = lob;
+        this.columnDefinition = column.get("columnDefinition");
+
+        String columnNameText = unquote(column.get("name"));
+        this.columnName = StringUtils.isNotBlank(columnNameText) ? columnNameText : MyStringUtils.camelToUnderline(name);
+
+        String definition = unquote(columnDefinition);
+        if (StringUtils.isBlank(definition)) {
+            definition = "";
+        }
+
+        Matcher sqlTypeMatcher = SQL_TYPE_PATTERN.matcher(definition);
+        this.sqlType = sqlTypeMatcher.find() ? sqlTypeMatcher.group(1).toLowerCase() : null;
+
+        // 长度优先从columnDefinition中获取，其次为length属性
+        Matcher lengthMatcher = LENGTH_PATTERN.matcher(definition.toLowerCase());
+        if (lengthMatcher.find()) {
+            this.length = Integer.parseInt(lengthMatcher.group(1));
+        } else if (null != column.get("length") && column.get("length").trim().matches("\\d+")) {
+            this.length = Integer.parseInt(column.get("length").trim());
+        } else {
+            this.length = null;
+        }
+
+        this.nullable = !definition.toLowerCase().contains("not null")
+                && !"false".equals(StringUtils.trimToEmpty(column.get("nullable")));
+
+        // DTO校验注解只根据columnDefinition中的原始文本生成
+        Matcher definitionLengthMatcher = LENGTH_PATTERN.matcher(definition);
+        this.definitionLength = definitionLengthMatcher.find() ? Integer.valueOf(definitionLengthMatcher.group(1)) : null;
+        this.definitionNotNull = definition.contains("not null");
+
+        Matcher commentMatcher = COMMENT_PATTERN.matcher(definition);
+        this.comment = commentMatcher.find() ? commentMatcher.group(1) : null;
+    }
+
+    private static String unquote(String text) {
+        return null == text ? null : text.replace("\"", "");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getTypeName() {
+        return typeName;
+    }
+
+    public String getTypeQualifiedName() {
+        return typeQualifiedName;
+    }
+
+    /**
+     * 获取列名，Column注解中指定了name时使用指定的名称
+     */
+    public String getColumnName() {
+        return columnName;
+    }
+
+    /**
+     * Column注解中columnDefinition的原始文本（包含引号），没有时为null
+     */
+    public String getColumnDefinition() {
+        return columnDefinition;
+    }
+
+    /**
+     * columnDefinition中的SQL类型，如varchar、bigint等，没有时为null
+     */
+    public String getSqlType() {
+        return sqlType;
+    }
+
+    /**
+     * 字符串类型的长度，未指定时为null
+     */
+    public Integer getLength() {
+        return length;
+    }
+
+    /**
+     * 是否可以为空，columnDefinition中包含not null或者nullable为false时不可为空
+     */
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    /**
+     * columnDefinition中char或varchar类型的长度，没有时为null；不考虑length属性
+     */
+    public Integer getDefinitionLength() {
+        return definitionLength;
+    }
+
+    /**
+     * columnDefinition中是否包含not null；不考虑nullable属性
+     */
+    public boolean isDefinitionNotNull() {
+        return definitionNotNull;
+    }
+
+    /**
+     * columnDefinition中的列注释，没有时为null
+     */
+    public String getComment() {
+        return comment;
+    }
+
+    public boolean isEnumType() {
+        return enumType;
+    }
+
+    public boolean isLob() {
+        return lob;
+    }
+
+    /**
+     * 判断是否为大字段：有Lob注解、SQL类型为text/blob等，或者长度超过指定值
+     *
+     * @param maxLength 非大字段的最大长度
+     * @return 是大字段时返回true
+     */
+    public boolean isLarge(int maxLength) {
+        return lob || LARGE_SQL_TYPES.contains(sqlType) || (null != length && length > maxLength);
+    }
+}
@@ -0,0 +1,77 @@
+package com.liuqi.tool.idea.plugin.engine;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 增量生成使用的指纹标签
+ * 生成DTO及映射文件时在文件头部记录实体指纹及生成的属性清单，再次生成时与实体当前的指纹进行比较，
+ * 指纹一致的文件不做任何修改，不一致时只更新与属性相关的部分。
+ *
+ * @author LiuQi 2020/6/11-10:30
+ * @version V1.0
+ **/
+public final class FingerprintTags {
+    /**
+     * 实体指纹
+     */
+    public static final String HASH = "entityHash";
+
+    /**
+     * 生成时包含的属性，以逗号分隔；更新时只删除清单中的属性，手工增加的属性不受影响
+     */
+    public static final String FIELDS = "entityFields";
+
+    private FingerprintTags() {
+    }
+
+    /**
+     * 生成Java类注释中使用的标签
+     *
+     * @param model      实体信息
+     * @param fieldNames 生成的属性名称
+     * @return 标签，可直接用于{@link CodeComment#getContent(String, Map)}
+     */
+    public static Map<String, String> of(EntityModel model, List<String> fieldNames) {
+        Map<String, String> tags = new LinkedHashMap<>(4);
+        tags.put(HASH, model.getFingerprint());
+        tags.put(FIELDS, String.join(",", fieldNames));
+        return tags;
+    }
+
+    /**
+     * 生成XML文件中使用的指纹注释
+     *
+     * @param model 实体信息
+     * @return XML注释
+     */
+    public static String xmlComment(EntityModel model) {
+        return "<!-- @" + HASH + " " + model.getFingerprint() + " -->";
+    }
+
+    /**
+     * 从文件内容中读取标签
+     *
+     * @param text 文件内容
+     * @param tag  标签名称
+     * @return 标签内容，不存在时返回空
+     */
+    public static Optional<String> read(String text, String tag) {
+        Matcher matcher = Pattern.compile("@" + tag + "[ \\t]+([\\w,]*)").matcher(text);
+        return matcher.find() ? Optional.of(matcher.group(1)) : Optional.empty();
+    }
+
+    /**
+     * 读取文件中记录的属性清单
+     *
+     * @param text 文件内容
+     * @return 属性名称，没有记录时返回空集合
+     */
+    public static Set<String> readFields(String text) {
+        return read(text, FIELDS)
+                .filter(fields -> !fields.isEmpty())
+                .map(fields -> (Set<String>) new LinkedHashSet<>(Arrays.asList(fields.split(","))))
+                .orElse(Collections.emptySet());
+    }
+}
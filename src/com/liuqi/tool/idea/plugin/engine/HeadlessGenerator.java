@@ -0,0 +1,314 @@
+package com.liuqi.tool.idea.plugin.engine;
+
+import com.liuqi.tool.idea.plugin.bean.GeneratorConfig;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 命令行代码生成器
+ * 不启动IDE，直接解析源码目录中的实体类，生成DTO对象、MyBatis映射文件及控制器，可在持续集成中使用；
+ * 生成响应式代码时只生成DTO对象及WebFlux控制器：
+ * <pre>
+ * java -cp entityCodeGenerator.jar:commons-lang.jar com.liuqi.tool.idea.plugin.engine.HeadlessGenerator \
+ *     --source src/main/java --resources src/main/resources [--config codeGenerator.properties] [--overwrite]
+ * </pre>
+ * 生成的目录结构与IDE中生成时一致，所有实体并行处理。
+ * <p>
+ * ExcelField、ExcelUtils、AuthUser等公共包（lcommon）中的类在IDE中从依赖库中查找，命令行生成时无法读取依赖库，
+ * 按配置文件中的headless.class.类名（如headless.class.ExcelUtils=...）指定全名，没有配置时在源码目录中查找；
+ * 生成前先确定所有需要的类，有无法确定全名的类时不生成任何文件并报错退出。
+ *
+ * @author LiuQi 2020/6/9-15:10
+ * @version V1.0
+ **/
+public final class HeadlessGenerator {
+    /**
+     * 指定公共包中类的全名的配置项前缀
+     */
+    public static final String CLASS_PROPERTY_PREFIX = "headless.class.";
+
+    private static final String USAGE = "Usage: HeadlessGenerator --source <java source root> --resources <resources root> "
+            + "[--config codeGenerator.properties] [--overwrite]";
+
+    private final Path sourceRoot;
+    private final Path resourceRoot;
+    private final Map<String, String> properties;
+    private final boolean overwrite;
+    private final EntitySourceParser parser = new EntitySourceParser();
+
+    /**
+     * @param sourceRoot   Java源码根目录
+     * @param resourceRoot 资源文件根目录
+     * @param properties   codeGenerator.properties中的配置项
+     * @param overwrite    是否覆盖已经存在的文件
+     */
+    public HeadlessGenerator(Path sourceRoot, Path resourceRoot, Map<String, String> properties, boolean overwrite) {
+        this.sourceRoot = sourceRoot;
+        this.resourceRoot = resourceRoot;
+        this.properties = properties;
+        this.overwrite = overwrite;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path sourceRoot = null;
+        Path resourceRoot = null;
+        Path configPath = null;
+        boolean overwrite = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--source":
+                    sourceRoot = Paths.get(args[++i]);
+                    break;
+                case "--resources":
+                    resourceRoot = Paths.get(args[++i]);
+                    break;
+                case "--config":
+                    configPath = Paths.get(args[++i]);
+                    break;
+                case "--overwrite":
+                    overwrite = true;
+                    break;
+                default:
+                    exitWithUsage("未知参数：" + args[i]);
+                    return;
+            }
+        }
+
+        if (null == sourceRoot || null == resourceRoot) {
+            exitWithUsage("缺少--source或--resources参数");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        int count;
+        try {
+            count = new HeadlessGenerator(sourceRoot, resourceRoot, loadProperties(configPath), overwrite).generate();
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        System.out.println("已为" + count + "个实体生成代码，耗时" + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    private static void exitWithUsage(String message) {
+        System.err.println(message);
+        System.err.println(USAGE);
+        System.exit(1);
+    }
+
+    private static Map<String, String> loadProperties(Path configPath) throws IOException {
+        Map<String, String> result = new HashMap<>(16);
+        if (null == configPath || !Files.exists(configPath)) {
+            return result;
+        }
+
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(configPath, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+
+        properties.stringPropertyNames().forEach(name -> result.put(name, properties.getProperty(name)));
+        return result;
+    }
+
+    /**
+     * 解析源码目录中的所有类，并为其中被Entity注解的类生成代码
+     *
+     * @return 处理的实体数量
+     */
+    public int generate() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(sourceRoot)) {
+            files = stream.filter(path -> path.toString().endsWith(".java")).collect(Collectors.toList());
+        }
+
+        // 先解析所有类，属性类型是否为枚举以及父类属性都需要在全部类中查找
+        List<EntityModel> models = files.parallelStream()
+                .map(this::parse)
+                .filter(Objects::nonNull)
+                .filter(sourceClass -> sourceClass.hasAnnotation("javax.persistence.Entity"))
+                .collect(Collectors.toList())
+                .parallelStream()
+                .map(parser::toEntityModel)
+                .collect(Collectors.toList());
+
+        // 写入任何文件之前确定所有需要导入的公共类
+        Set<String> libraryClassNames = new TreeSet<>();
+        models.forEach(model -> libraryClassNames.addAll(getLibraryClassNames(createConfig(model))));
+        Map<String, String> libraryClasses = resolveLibraryClasses(libraryClassNames);
+
+        models.parallelStream().forEach(model -> generate(model, libraryClasses));
+        return models.size();
+    }
+
+    /**
+     * 获取生成的代码中需要导入的公共包中的类
+     */
+    private static List<String> getLibraryClassNames(GeneratorConfig config) {
+        List<String> names = new ArrayList<>(5);
+        if (config.getExcelFunc()) {
+            names.add("ExcelField");
+            if (!config.getReactive()) {
+                names.add("ExcelUtils");
+            }
+        }
+
+        if (config.getWithUserId() && !config.getReactive()) {
+            names.addAll(Arrays.asList("AuthUser", "SecurityUtils", "LogoutException"));
+        }
+
+        return names;
+    }
+
+    /**
+     * 确定公共包中的类的全名，先使用配置文件中指定的全名，再在源码目录中查找
+     *
+     * @param names 简单类名
+     * @return Key为简单类名，Value为全名
+     * @throws IllegalStateException 有无法确定全名的类时抛出
+     */
+    private Map<String, String> resolveLibraryClasses(Set<String> names) {
+        Map<String, String> result = new HashMap<>(8);
+        List<String> missing = new ArrayList<>(0);
+        for (String name : names) {
+            String configured = properties.get(CLASS_PROPERTY_PREFIX + name);
+            Optional<String> qualifiedName = null != configured && !configured.trim().isEmpty()
+                    ? Optional.of(configured.trim()) : parser.findQualifiedName(name);
+            if (qualifiedName.isPresent()) {
+                result.put(name, qualifiedName.get());
+            } else {
+                missing.add(name);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            StringBuilder message = new StringBuilder("无法确定以下类的全名，未生成任何文件，请在配置文件中指定：");
+            missing.forEach(name -> message.append("\n").append(CLASS_PROPERTY_PREFIX).append(name).append("=<类全名>"));
+            throw new IllegalStateException(message.toString());
+        }
+
+        return result;
+    }
+
+    private GeneratorConfig createConfig(EntityModel model) {
+        GeneratorConfig config = GeneratorConfig.of(properties);
+        config.setWithDeleted(model.hasField("deleted"));
+        config.setWithCreateTime(model.hasField("createTime"));
+        config.setWithUserId(model.hasField("userId"));
+        return config;
+    }
+
+    private EntitySourceParser.SourceClass parse(Path path) {
+        try {
+            return parser.parse(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void generate(EntityModel model, Map<String, String> libraryClasses) {
+        String entityName = model.getEntityName();
+        GeneratorConfig config = createConfig(model);
+
+        // 实体类位于domain/entity目录中，其它类按IDE中生成时的目录组织
+        String basePackage = getParentPackage(getParentPackage(model.getPackageName()));
+        String dtoPackage = subPackage(basePackage, "bean.dto");
+        String queryPackage = subPackage(basePackage, "bean.query");
+        String daoPackage = subPackage(basePackage, "domain.dao");
+        String servicePackage = subPackage(basePackage, "service");
+        String webPackage = subPackage(basePackage, "web");
+
+        List<String> fieldAnnotations = new ArrayList<>(1);
+        if (config.getExcelFunc()) {
+            fieldAnnotations.add(libraryClasses.get("ExcelField"));
+        }
+
+        for (String name : Arrays.asList("", "Update", "Add")) {
+            write(getJavaPath(dtoPackage, entityName + name + "DTO"), DtoRenderer.render(model, dtoPackage, name,
+                    "".equals(name) ? fieldAnnotations : Collections.emptyList()));
+        }
+
+        if (config.getReactive()) {
+            StringBuilder controller = new StringBuilder("package ").append(webPackage).append(";\n\n");
+            List<String> imports = ReactiveRenderer.getControllerImports(true);
+            imports.add(dtoPackage + "." + entityName + "DTO");
+            imports.add(dtoPackage + "." + entityName + "AddDTO");
+            imports.add(dtoPackage + "." + entityName + "UpdateDTO");
+            imports.add(servicePackage + "." + entityName + "Service");
+            imports.forEach(qualifiedName -> controller.append("import ").append(qualifiedName).append(";\n"));
+            controller.append("\n").append(ReactiveRenderer.renderController(model, config, true));
+            write(getJavaPath(webPackage, entityName + "Controller"), JavaSourceFormatter.format(controller.toString()));
+            return;
+        }
+
+        write(resourceRoot.resolve("mappers").resolve(entityName + "Dao.xml"), MapperXmlRenderer.render(model,
+                daoPackage + "." + entityName + "Dao", dtoPackage + "." + entityName + "DTO",
+                queryPackage + "." + entityName + "Query", config));
+
+        List<String> imports = new ArrayList<>(Arrays.asList("javax.annotation.Resource",
+                "org.springframework.web.bind.annotation.*", "io.swagger.annotations.Api",
+                "io.swagger.annotations.ApiOperation", "com.github.pagehelper.PageInfo",
+                dtoPackage + "." + entityName + "DTO", dtoPackage + "." + entityName + "AddDTO",
+                dtoPackage + "." + entityName + "UpdateDTO", queryPackage + "." + entityName + "Query",
+                servicePackage + "." + entityName + "Service"));
+        if (config.getExcelFunc()) {
+            imports.add("javax.servlet.http.HttpServletResponse");
+            imports.add("org.springframework.web.multipart.MultipartFile");
+            imports.add(libraryClasses.get("ExcelUtils"));
+        }
+
+        if (config.getStreamDownload()) {
+            imports.add("java.io.IOException");
+        }
+
+        if (config.getSeekQuery() || config.getStreamUpload() || config.getDirectWrite()) {
+            imports.add("java.util.List");
+        }
+
+        if (config.getWithUserId()) {
+            Stream.of("AuthUser", "SecurityUtils", "LogoutException").map(libraryClasses::get).forEach(imports::add);
+        }
+
+        StringBuilder controller = new StringBuilder("package ").append(webPackage).append(";\n\n");
+        imports.forEach(qualifiedName -> controller.append("import ").append(qualifiedName).append(";\n"));
+        controller.append("\n").append(ControllerRenderer.render(model, config, true));
+        write(getJavaPath(webPackage, entityName + "Controller"), JavaSourceFormatter.format(controller.toString()));
+    }
+
+    private Path getJavaPath(String packageName, String className) {
+        return sourceRoot.resolve(packageName.replace(".", "/")).resolve(className + ".java");
+    }
+
+    private void write(Path path, String content) {
+        try {
+            if (Files.exists(path) && !overwrite) {
+                return;
+            }
+
+            Files.createDirectories(path.getParent());
+            Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String getParentPackage(String packageName) {
+        int idx = packageName.lastIndexOf(".");
+        return -1 == idx ? "" : packageName.substring(0, idx);
+    }
+
+    private static String subPackage(String packageName, String subPackage) {
+        return packageName.isEmpty() ? subPackage : packageName + "." + subPackage;
+    }
+}
@@ -0,0 +1,110 @@
+package com.liuqi.tool.idea.plugin.engine;
+
+/**
+ * 简单的Java源码格式化
+ * 在IDE中生成的代码使用IDE的格式化功能，命令行生成时没有IDE，使用该类按大括号与分号进行换行及缩进
+ *
+ * @author LiuQi 2020/6/9-14:05
+ * @version V1.0
+ **/
+public final class JavaSourceFormatter {
+    private static final String INDENT = "    ";
+
+    private JavaSourceFormatter() {
+    }
+
+    public static String format(String source) {
+        StringBuilder result = new StringBuilder(source.length() + source.length() / 4);
+        StringBuilder line = new StringBuilder();
+        int depth = 0;
+        int parenDepth = 0;
+        for (int i = 0; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if ('"' == c || '\'' == c) {
+                int end = skipLiteral(source, i);
+                line.append(source, i, end);
+                i = end - 1;
+                continue;
+            }
+
+            if (source.startsWith("/*", i)) {
+                int end = source.indexOf("*/", i);
+                end = -1 == end ? source.length() : end + 2;
+                line.append(source, i, end);
+                i = end - 1;
+                continue;
+            }
+
+            if ('(' == c) {
+                parenDepth++;
+            } else if (')' == c) {
+                parenDepth--;
+            }
+
+            if ('\n' == c) {
+                depth = appendLine(result, line, depth, depth);
+                continue;
+            }
+
+            if (0 != parenDepth) {
+                line.append(c);
+                continue;
+            }
+
+            if ('{' == c) {
+                line.append(c);
+                depth = appendLine(result, line, depth, depth + 1);
+            } else if ('}' == c) {
+                depth = appendLine(result, line, depth, depth);
+                depth = Math.max(depth - 1, 0);
+                line.append(c);
+                depth = appendLine(result, line, depth, depth);
+                if (1 == depth) {
+                    result.append("\n");
+                }
+            } else if (';' == c) {
+                line.append(c);
+                depth = appendLine(result, line, depth, depth);
+            } else {
+                line.append(c);
+            }
+        }
+
+        appendLine(result, line, depth, depth);
+        return result.toString();
+    }
+
+    /**
+     * 将当前行按缩进添加到结果中，空行会被忽略
+     *
+     * @return 下一行的缩进层级
+     */
+    private static int appendLine(StringBuilder result, StringBuilder line, int depth, int nextDepth) {
+        String text = line.toString().trim();
+        line.setLength(0);
+        if (text.isEmpty()) {
+            return nextDepth;
+        }
+
+        for (int i = 0; i < depth; i++) {
+            result.append(INDENT);
+        }
+
+        result.append(text).append("\n");
+        return nextDepth;
+    }
+
+    private static int skipLiteral(String text, int start) {
+        char quote = text.charAt(start);
+        for (int i = start + 1; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if ('\\' == c) {
+                i++;
+            } else if (quote == c) {
+                return i + 1;
+            }
+        }
+
+        return text.length();
+    }
+}
@@ -0,0 +1,59 @@
+package com.liuqi.tool.idea.plugin.engine;
+
+import com.liuqi.tool.idea.plugin.bean.GeneratorConfig;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * 压测脚本生成器
+ * 生成k6脚本，放在模块根目录的loadtest目录中，以固定的请求速率调用分页查询接口，分别对启用及未启用虚拟线程生成的服务执行，
+ * 比较两次输出中的吞吐量（http_reqs）及响应时间（http_req_duration）
+ *
+ * @author LiuQi 2020/6/19-10:15
+ * @version V1.0
+ **/
+public final class LoadTestRenderer {
+    private LoadTestRenderer() {
+    }
+
+    /**
+     * 获取脚本文件名，与控制器路径一致
+     */
+    public static String getFileName(EntityModel model) {
+        return ControllerRenderer.getControllerPath(model.getEntityName()).toLowerCase() + ".js";
+    }
+
+    /**
+     * 生成压测脚本
+     *
+     * @param model  实体信息
+     * @param config 生成配置
+     * @return 脚本内容
+     */
+    public static String render(EntityModel model, GeneratorConfig config) {
+        String url = ControllerRenderer.getRequestPath(model.getEntityName(), config.getControllerPrefix()) + "/page-query";
+        return "// " + StringUtils.defaultString(model.getComment().getText()) + "分页查询压测脚本，执行方式：\n" +
+                "// k6 run -e BASE_URL=http://localhost:8080 -e RATE=500 -e DURATION=60s loadtest/" + getFileName(model) + "\n" +
+                "// 分别对thread.virtual为true及false时生成的服务执行，请求速率超过服务处理能力时dropped_iterations会增加\n" +
+                "import http from 'k6/http';\n" +
+                "import { check } from 'k6';\n\n" +
+                "const baseUrl = __ENV.BASE_URL || 'http://localhost:8080';\n" +
+                "const params = { headers: { 'Content-Type': 'application/json' } };\n\n" +
+                "export const options = {\n" +
+                "    scenarios: {\n" +
+                "        pageQuery: {\n" +
+                "            executor: 'constant-arrival-rate',\n" +
+                "            rate: Number(__ENV.RATE || 500),\n" +
+                "            timeUnit: '1s',\n" +
+                "            duration: __ENV.DURATION || '60s',\n" +
+                "            preAllocatedVUs: 200,\n" +
+                "            maxVUs: 2000,\n" +
+                "        },\n" +
+                "    },\n" +
+                "};\n\n" +
+                "export default function () {\n" +
+                "    const body = JSON.stringify({ page: Math.floor(Math.random() * 10) + 1, size: 20 });\n" +
+                "    const res = http.post(`${baseUrl}" + url + "`, body, params);\n" +
+                "    check(res, { 'status is 200': r => r.status === 200 });\n" +
+                "}\n";
+    }
+}
@@ -0,0 +1,329 @@
+package com.liuqi.tool.idea.plugin.engine;
+
+import com.liuqi.tool.idea.plugin.bean.GeneratorConfig;
+
+import java.util.List;
+
+/**
+ * MyBatis映射文件生成器
+ * 生成resultMap、columns等基础的sql片段以及query/count/findAll/batchAdd语句，
+ * 使用BATCH执行器批量新增时还会生成单条插入的add语句，启用游标分页时生成按主键分页的seekQuery语句，
+ * 列表查询不查询大字段时生成不包含大字段的columnsLite片段，query语句默认使用此片段，
+ * 同时生成按查询对象中fields指定的属性查询的columnsProjection片段，属性只能是resultMap中的属性，
+ * 流式查询或流式下载Excel时生成以游标方式读取的queryCursor语句，
+ * 直接修改及删除时生成updateSelective、deleteById及deleteByIds语句，按主键直接查询DTO时生成findDtoById语句，
+ * 不使用PageHelper分页时生成带limit的pageQuery语句；
+ * 文件头部记录实体指纹，增量生成时用于判断是否需要更新resultMap、columns及新增语句
+ *
+ * @author LiuQi 2020/6/8-11:05
+ * @version V1.0
+ **/
+public final class MapperXmlRenderer {
+    /**
+     * 游标分页未指定每页记录数时的默认值
+     */
+    private static final int SEEK_PAGE_SIZE = 20;
+
+    private static final String IDS_IN = "<foreach collection=\"ids\" item=\"item\" open=\"(\" close=\")\" separator=\",\">\n" +
+            "#{item}\n" +
+            "</foreach>\n";
+
+    private MapperXmlRenderer() {
+    }
+
+    /**
+     * 增加直接修改及删除的语句
+     * updateSelective只更新修改对象中不为空的属性；有deleted属性时删除为逻辑删除；
+     * 有userId属性时传入userId则只修改及删除该用户的记录，通过影响的记录数判断是否成功
+     */
+    private static void appendDirectWrites(StringBuilder content, EntityModel model, GeneratorConfig config) {
+        String tableName = model.getTableName();
+        StringBuilder userCondition = new StringBuilder();
+        if (config.getWithDeleted()) {
+            userCondition.append(" and deleted = 0");
+        }
+
+        if (config.getWithUserId()) {
+            userCondition.append("\n<if test=\"null != userId\"> and user_id = #{userId}</if>");
+        }
+
+        List<String> updateFields = DtoRenderer.getFieldNames(model, "Update");
+        content.append("\n<update id=\"updateSelective\">\nupdate ").append(tableName).append("\n<set>\n")
+                // 所有属性都为空时set子句不能为空
+                .append("id = #{dto.id},\n");
+        for (FieldModel field : model.getFields()) {
+            if ("id".equals(field.getName()) || !updateFields.contains(field.getName())) {
+                continue;
+            }
+
+            content.append("<if test=\"null != dto.").append(field.getName()).append("\">")
+                    .append(field.getColumnName()).append(" = #{dto.").append(field.getName());
+            if (field.isEnumType()) {
+                content.append(", typeHandler=org.apache.ibatis.type.EnumOrdinalTypeHandler");
+            }
+
+            content.append("},</if>\n");
+        }
+
+        // 不经过JPA保存时修改时间需要在语句中更新
+        model.getAllFields().stream().filter(field -> "updateTime".equals(field.getName())).findFirst()
+                .ifPresent(field -> content.append(field.getColumnName()).append(" = now(),\n"));
+
+        content.append("</set>\nwhere id = #{dto.id}").append(userCondition).append("\n</update>\n\n");
+
+        String delete = config.getWithDeleted() ? "update " + tableName + " set deleted = 1" : "delete from " + tableName;
+        content.append("\n<update id=\"deleteById\">\n").append(delete).append(" where id = #{id}")
+                .append(userCondition).append("\n</update>\n\n");
+        content.append("\n<update id=\"deleteByIds\">\n").append(delete).append(" where id in <include refid=\"idsIn\"/>")
+                .append(userCondition).append("\n</update>\n\n");
+    }
+
+    /**
+     * 生成映射文件内容
+     *
+     * @param model     实体信息
+     * @param daoName   Dao接口全名，作为映射文件的命名空间
+     * @param dtoName   DTO类全名
+     * @param queryName 查询对象类全名
+     * @param config    生成配置
+     * @return 映射文件内容
+     */
+    public static String render(EntityModel model, String daoName, String dtoName, String queryName, GeneratorConfig config) {
+        StringBuilder content = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n" +
+                "<!DOCTYPE mapper\n" +
+                "        PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\"\n" +
+                "        \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">\n" +
+                FingerprintTags.xmlComment(model) + "\n" +
+                "<mapper namespace=\"" + daoName + "\">");
+
+        // 增加resultMap映射
+        content.append("<resultMap id=\"resultMap\" type=\"").append(dtoName).append("\">");
+
+        StringBuilder columns = new StringBuilder();
+        StringBuilder liteColumns = new StringBuilder();
+        StringBuilder projectionColumns = new StringBuilder();
+        StringBuilder insertColumns = new StringBuilder();
+        StringBuilder insertFields = new StringBuilder();
+        for (FieldModel field : model.getAllFields()) {
+            String fieldName = field.getName();
+            String str = field.getColumnName();
+
+            content.append("<result property=\"").append(fieldName).append("\" column=\"").append(str).append("\"");
+
+            // 如果是枚举类
+            if (field.isEnumType()) {
+                content.append(" typeHandler=\"org.apache.ibatis.type.EnumOrdinalTypeHandler\"");
+            }
+
+            content.append("/>");
+
+            if (config.getLiteQuery() && !field.isLarge(config.getLiteMaxLength())) {
+                liteColumns.append(0 == liteColumns.length() ? "" : ",").append("t1.").append(str);
+            }
+
+            // 属性名使用双引号比较，单个字符的属性名在OGNL中不会被当成字符
+            if (config.getLiteQuery() && !"id".equals(fieldName)) {
+                projectionColumns.append("<when test='\"").append(fieldName).append("\" == field'>,t1.").append(str).append("</when>");
+            }
+
+            if (0 == columns.length()) {
+                columns.append("t1.").append(str);
+                insertColumns.append(str);
+                insertFields.append("#{item.").append(fieldName).append("}");
+            } else {
+                columns.append(",").append("t1.").append(str);
+                insertColumns.append(",").append(str);
+                insertFields.append(",#{item.").append(fieldName).append("}");
+            }
+        }
+
+        String tableName = model.getTableName();
+
+        content.append("</resultMap>\n\n")
+                .append("<sql id=\"columns\">\n")
+                .append(columns.toString())
+                .append("</sql>\n\n");
+
+        if (config.getLiteQuery()) {
+            content.append("<sql id=\"columnsLite\">\n")
+                    .append(liteColumns.toString())
+                    .append("</sql>\n\n");
+
+            // 只按属性名匹配resultMap中的列，不在其中的属性忽略，查询条件中的属性名不会拼接到语句中；主键总是查询
+            content.append("<sql id=\"columnsProjection\">\n")
+                    .append("t1.id<foreach collection=\"fields\" item=\"field\"><choose>")
+                    .append(projectionColumns.toString())
+                    .append("</choose></foreach>\n</sql>\n\n");
+        }
+
+        content.append("<sql id=\"tables\">\n")
+                .append("\nfrom ").append(tableName).append(" t1\n")
+                .append("</sql>\n\n")
+                .append("<sql id=\"baseSelect\">\n")
+                .append("select \n<include refid=\"columns\"/>\n")
+                .append("<include refid=\"tables\"/>")
+                .append("\n</sql>\n\n");
+
+        // 主键列表，查询条件与批量删除共用
+        if (config.getDirectWrite()) {
+            content.append("<sql id=\"idsIn\">\n").append(IDS_IN).append("</sql>\n\n");
+        }
+
+        content.append("<sql id=\"conditions\">\n")
+                .append("<where>\n");
+        if (config.getWithDeleted()) {
+            content.append(" t1.deleted = 0\n");
+        }
+
+        // 增加id/idNot/keyword的查询条件
+        content.append("<if test=\"null != id\">\n")
+                .append(" and t1.id = #{id}\n")
+                .append("</if>\n")
+                .append("<if test=\"null != idNot\">\n")
+                .append("and t1.id <![CDATA[<>]]> #{idNot}\n")
+                .append("</if>\n")
+                .append("<if test=\"null != ids\">\n")
+                .append("and t1.id in ")
+                .append(config.getDirectWrite() ? "<include refid=\"idsIn\"/>\n" : IDS_IN)
+                .append("</if>\n");
+        if (config.getSeekQuery()) {
+            content.append("<if test=\"null != afterId\">\n")
+                    .append("and t1.id <![CDATA[>]]> #{afterId}\n")
+                    .append("</if>\n");
+        }
+
+        content.append("</where>\n</sql>\n\n");
+
+        // 列表查询默认不查询大字段，fullColumns为true时查询所有列，否则指定了fields时只查询其中的属性
+        StringBuilder queryBody = new StringBuilder();
+        if (config.getLiteQuery()) {
+            queryBody.append("select \n<choose><when test=\"null != fullColumns and fullColumns\"><include refid=\"columns\"/></when>")
+                    .append("<when test=\"null != fields and !fields.isEmpty()\"><include refid=\"columnsProjection\"/></when>")
+                    .append("<otherwise><include refid=\"columnsLite\"/></otherwise></choose>\n")
+                    .append("<include refid=\"tables\"/>\n");
+        } else {
+            queryBody.append("<include refid=\"baseSelect\"/>\n");
+        }
+
+        queryBody.append("<include refid=\"conditions\"/>\n");
+
+        queryBody.append("\n <if test=\"null != orderByProperty and '' != orderByProperty\">\n order by t1.${orderByProperty} ${orderByType}\n</if>");
+
+        if (config.getWithCreateTime()) {
+            queryBody.append("\n<if test=\"null == orderByProperty or '' == orderByProperty\"> \norder by t1.id desc \n</if>");
+        }
+
+        content.append("<select id=\"query\" parameterType=\"")
+                .append(queryName)
+                .append("\" resultMap=\"resultMap\">")
+                .append(queryBody)
+                .append("\n</select>\n\n");
+
+        // 页码从1开始，服务类调用前将page及size修正为不小于1的值
+        if (config.getExplicitPaging()) {
+            content.append("<select id=\"pageQuery\" parameterType=\"")
+                    .append(queryName)
+                    .append("\" resultMap=\"resultMap\">")
+                    .append("<bind name=\"offset\" value=\"(page - 1) * size\"/>\n")
+                    .append(queryBody)
+                    .append("\nlimit #{size} offset #{offset}")
+                    .append("\n</select>\n\n");
+        }
+
+        // 流式查询及流式下载使用的游标查询，按批次从数据库读取，不一次加载所有数据；
+        // MySQL驱动默认会读取全部结果，需要在连接串中增加useCursorFetch=true，fetchSize才会生效
+        if (config.getQueryCursor()) {
+            content.append("<select id=\"queryCursor\" parameterType=\"")
+                    .append(queryName)
+                    .append("\" resultMap=\"resultMap\" fetchSize=\"")
+                    .append(config.getCursorFetchSize())
+                    .append("\">")
+                    .append("<include refid=\"baseSelect\"/>\n")
+                    .append("<include refid=\"conditions\"/>\n")
+                    .append("\norder by t1.id")
+                    .append("\n</select>\n\n");
+        }
+
+        // 游标分页，按主键排序并从afterId之后开始取，不需要跳过前面的记录，也不需要统计总数
+        if (config.getSeekQuery()) {
+            content.append("<select id=\"seekQuery\" parameterType=\"")
+                    .append(queryName)
+                    .append("\" resultMap=\"resultMap\">")
+                    .append("<include refid=\"baseSelect\"/>\n")
+                    .append("<include refid=\"conditions\"/>\n")
+                    .append("\norder by t1.id limit <choose><when test=\"null != size\">#{size}</when><otherwise>")
+                    .append(SEEK_PAGE_SIZE)
+                    .append("</otherwise></choose>")
+                    .append("\n</select>\n\n");
+        }
+
+        // 与JPA按主键查询一致，不过滤已删除的记录
+        if (config.getFindOneDto()) {
+            content.append("<select id=\"findDtoById\" resultMap=\"resultMap\">")
+                    .append("\n<include refid=\"baseSelect\"/>")
+                    .append("\nwhere t1.id = #{id}")
+                    .append("\n</select>\n\n");
+        }
+
+        content.append("<select id=\"count\" parameterType=\"")
+                .append(queryName)
+                .append("\" resultType=\"long\">")
+                .append("select count(1) <include refid=\"tables\"/> \n")
+                .append("<include refid=\"conditions\"/>\n")
+                .append("\n</select>\n\n");
+
+        content.append("\n<select id=\"findAll\" parameterType=\"")
+                .append(queryName)
+                .append("\" resultMap=\"resultMap\">")
+                .append("\n<include refid=\"baseSelect\"/>");
+
+        if (config.getWithDeleted()) {
+            content.append(" \nwhere t1.deleted = 0");
+        }
+
+        content.append(" \n<if test=\"null != orderByProperty and '' != orderByProperty\"> \norder by t1.${orderByProperty} #{orderByType}\n</if>");
+
+        if (config.getWithCreateTime()) {
+            content.append("\n<if test=\"null == orderByProperty or '' == orderByProperty\"> \norder by t1.create_time desc \n</if>");
+        }
+
+        content.append("\n</select>\n\n");
+
+        // 增加批量新增语句
+        content.append("\n<insert id=\"batchAdd\" parameterType=\"")
+                .append(dtoName)
+                .append("\">")
+                .append("\ninsert into ")
+                .append(tableName)
+                .append("(")
+                .append(insertColumns.toString())
+                .append(") values <foreach collection=\"list\" item=\"item\" open=\"\" close=\"\" separator=\",\">\n")
+                .append("(")
+                .append(insertFields.toString())
+                .append(")")
+                .append("\n</foreach></insert>\n\n")
+        ;
+
+        // BATCH执行器下逐条执行单行插入，由JDBC驱动合并提交
+        if (config.getBatchExecutor()) {
+            content.append("\n<insert id=\"add\" parameterType=\"")
+                    .append(dtoName)
+                    .append("\">")
+                    .append("\ninsert into ")
+                    .append(tableName)
+                    .append("(")
+                    .append(insertColumns.toString())
+                    .append(") values (")
+                    .append(insertFields.toString().replace("#{item.", "#{"))
+                    .append(")</insert>\n\n");
+        }
+
+        if (config.getDirectWrite()) {
+            appendDirectWrites(content, model, config);
+        }
+
+        content.append("</mapper>");
+
+        return content.toString();
+    }
+}
@@ -0,0 +1,320 @@
+package com.liuqi.tool.idea.plugin.engine;
+
+import com.liuqi.tool.idea.plugin.bean.GeneratorConfig;
+import com.liuqi.tool.idea.plugin.utils.MyStringUtils;
+
+import java.util.*;
+
+/**
+ * 响应式代码生成器
+ * 生成R2DBC映射对象、ReactiveCrudRepository、对象转换器、返回Mono/Flux的服务类以及WebFlux控制器，
+ * 生成的内容不包含package及import部分，需要导入的外部类通过各个imports方法获取，生成的其它类由调用方导入；
+ * 列表查询以Flux流式返回，由订阅方控制读取速度，不再使用PageInfo分页
+ *
+ * @author LiuQi 2020/6/18-9:30
+ * @version V1.0
+ **/
+public final class ReactiveRenderer {
+    /**
+     * 映射对象需要导入的类
+     */
+    public static final List<String> ROW_IMPORTS = Collections.unmodifiableList(Arrays.asList("lombok.Data",
+            "org.springframework.data.annotation.Id", "org.springframework.data.relational.core.mapping.Column",
+            "org.springframework.data.relational.core.mapping.Table"));
+
+    /**
+     * Repository需要导入的类
+     */
+    public static final List<String> REPOSITORY_IMPORTS = Collections.unmodifiableList(Arrays.asList(
+            "org.springframework.data.repository.reactive.ReactiveCrudRepository", "reactor.core.publisher.Flux",
+            "reactor.core.publisher.Mono"));
+
+    /**
+     * 对象转换器需要导入的类
+     */
+    public static final List<String> ROW_MAPPER_IMPORTS = Collections.unmodifiableList(Arrays.asList(
+            "org.mapstruct.BeanMapping", "org.mapstruct.Mapper", "org.mapstruct.MappingTarget",
+            "org.mapstruct.NullValuePropertyMappingStrategy"));
+
+    /**
+     * 服务类需要导入的类，不包含BusinessException
+     */
+    public static final List<String> SERVICE_IMPORTS = Collections.unmodifiableList(Arrays.asList("javax.annotation.Resource",
+            "org.springframework.stereotype.Service", "org.springframework.transaction.annotation.Transactional",
+            "reactor.core.publisher.Flux", "reactor.core.publisher.Mono"));
+
+    /**
+     * 流式查询默认返回的记录数
+     */
+    private static final int DEFAULT_STREAM_LIMIT = 1000;
+
+    /**
+     * 未配置findAll最多返回的记录数时，流式查询最多返回的记录数
+     */
+    private static final int MAX_STREAM_LIMIT = 10000;
+
+    private ReactiveRenderer() {
+    }
+
+    /**
+     * 获取映射对象类名
+     */
+    public static String getRowName(EntityModel model) {
+        return model.getEntityName() + "Row";
+    }
+
+    /**
+     * 获取对象转换器类名
+     */
+    public static String getRowMapperName(EntityModel model) {
+        return model.getEntityName() + "RowMapper";
+    }
+
+    /**
+     * 生成R2DBC映射对象
+     * 实体类上的JPA注解R2DBC不会识别，因此按实体的表名及列名单独生成映射对象；
+     * 枚举与MyBatis的EnumOrdinalTypeHandler一致按序号保存，映射对象中的类型为Integer，由对象转换器转换
+     *
+     * @param model   实体信息
+     * @param imports 属性类型需要导入的类，生成时添加
+     * @return 类内容
+     */
+    public static String renderRow(EntityModel model, Set<String> imports) {
+        StringBuilder content = new StringBuilder(model.getComment().getContent("R2DBC映射对象"))
+                .append("\n@Data @Table(\"").append(model.getTableName()).append("\")")
+                .append("\npublic class ").append(getRowName(model)).append(" {");
+        for (FieldModel field : model.getAllFields()) {
+            String typeQualifiedName = field.getTypeQualifiedName();
+            if (!field.isEnumType() && typeQualifiedName.contains(".") && !typeQualifiedName.contains("<")
+                    && !typeQualifiedName.startsWith("java.lang.")) {
+                imports.add(typeQualifiedName);
+            }
+
+            if ("id".equals(field.getName())) {
+                content.append("@Id ");
+            }
+
+            content.append("@Column(\"").append(field.getColumnName()).append("\") private ")
+                    .append(field.isEnumType() ? "Integer" : field.getTypeName()).append(" ").append(field.getName()).append(";\n");
+        }
+
+        return content.append("}").toString();
+    }
+
+    /**
+     * 生成Repository
+     * 有deleted属性时增加过滤已删除记录的查询方法
+     */
+    public static String renderRepository(EntityModel model, GeneratorConfig config) {
+        String rowName = getRowName(model);
+        StringBuilder content = new StringBuilder(model.getComment().getContent("R2DBC数据库操作类"))
+                .append("\npublic interface ").append(model.getEntityName()).append("Repository extends ReactiveCrudRepository<")
+                .append(rowName).append(", Long> {");
+        if (config.getWithDeleted()) {
+            content.append("Mono<").append(rowName).append("> findByIdAndDeletedFalse(Long id);")
+                    .append("Flux<").append(rowName).append("> findByDeletedFalse();")
+                    .append("Mono<Long> countByDeletedFalse();");
+        }
+
+        return content.append("}").toString();
+    }
+
+    /**
+     * 生成映射对象与DTO之间的转换器，修改时只复制非空属性；
+     * 每种枚举生成与序号相互转换的默认方法，MapStruct在转换枚举属性时自动调用
+     *
+     * @param model   实体信息
+     * @param imports 枚举类型需要导入的类，生成时添加
+     * @return 类内容
+     */
+    public static String renderRowMapper(EntityModel model, Set<String> imports) {
+        String entityName = model.getEntityName();
+        String rowName = getRowName(model);
+        StringBuilder content = new StringBuilder(model.getComment().getContent("映射对象转换器"))
+                .append("\n@Mapper(componentModel = \"spring\") public interface ").append(getRowMapperName(model)).append(" {")
+                .append(entityName).append("DTO toDto(").append(rowName).append(" row);")
+                .append(rowName).append(" fromAddDto(").append(entityName).append("AddDTO addDto);")
+                .append("@BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE) ")
+                .append("void updateRow(").append(entityName).append("UpdateDTO update, @MappingTarget ").append(rowName).append(" row);");
+
+        Set<String> enumTypes = new LinkedHashSet<>();
+        for (FieldModel field : model.getAllFields()) {
+            if (!field.isEnumType() || !enumTypes.add(field.getTypeName())) {
+                continue;
+            }
+
+            String typeName = field.getTypeName();
+            if (field.getTypeQualifiedName().contains(".")) {
+                imports.add(field.getTypeQualifiedName());
+            }
+
+            content.append("\ndefault Integer toOrdinal(").append(typeName).append(" value) {")
+                    .append("return null == value ? null : value.ordinal(); }")
+                    .append("\ndefault ").append(typeName).append(" to").append(typeName).append("(Integer ordinal) {")
+                    .append("return null == ordinal ? null : ").append(typeName).append(".values()[ordinal]; }");
+        }
+
+        return content.append("}").toString();
+    }
+
+    /**
+     * 生成服务类
+     * 所有方法都返回Mono或Flux，不阻塞调用线程；有deleted属性时删除为逻辑删除，查询时过滤已删除的记录
+     *
+     * @param model   实体信息
+     * @param config  生成配置
+     * @param imports 需要额外导入的类，生成时添加
+     * @return 类内容
+     */
+    public static String renderService(EntityModel model, GeneratorConfig config, Set<String> imports) {
+        String entityName = model.getEntityName();
+        String rowName = getRowName(model);
+        String dtoName = entityName + "DTO";
+        boolean withUpdateTime = model.getAllFields().stream().anyMatch(field -> "updateTime".equals(field.getName()));
+
+        StringBuilder content = new StringBuilder(model.getComment().getContent("服务"))
+                .append("\n@Service public class ").append(entityName).append("Service {")
+                .append("@Resource private ").append(entityName).append("Repository repository; \n")
+                .append("\n@Resource private ").append(getRowMapperName(model)).append(" mapper; \n");
+
+        // 新增
+        content.append("\n@Transactional public Mono<").append(dtoName).append("> add(").append(entityName)
+                .append("AddDTO addDto) {").append(rowName).append(" row = mapper.fromAddDto(addDto);");
+        if (config.getWithDeleted()) {
+            content.append("row.setDeleted(false);");
+        }
+
+        if (config.getWithCreateTime()) {
+            content.append("row.setCreateTime(LocalDateTime.now());");
+            if (withUpdateTime) {
+                content.append("row.setUpdateTime(LocalDateTime.now());");
+            }
+
+            imports.add("java.time.LocalDateTime");
+        }
+
+        content.append("return repository.save(row).map(mapper::toDto); }");
+
+        // 修改
+        String findById = config.getWithDeleted() ? "repository.findByIdAndDeletedFalse(" : "repository.findById(";
+        content.append("\n@Transactional public Mono<Void> update(").append(entityName).append("UpdateDTO update) {")
+                .append("return ").append(findById).append("update.getId())")
+                .append(".switchIfEmpty(Mono.error(() -> BusinessException.create(\"对象不存在\")))")
+                .append(".flatMap(row -> { mapper.updateRow(update, row); ");
+        if (withUpdateTime) {
+            content.append("row.setUpdateTime(LocalDateTime.now());");
+            imports.add("java.time.LocalDateTime");
+        }
+
+        content.append("return repository.save(row); }).then(); }");
+
+        // 删除
+        content.append("\n@Transactional public Mono<Void> delete(Long id) {");
+        if (config.getWithDeleted()) {
+            content.append("return repository.findByIdAndDeletedFalse(id).flatMap(row -> { row.setDeleted(true); ")
+                    .append("return repository.save(row); }).then(); }");
+        } else {
+            content.append("return repository.deleteById(id); }");
+        }
+
+        // 查询
+        content.append("\n@Transactional(readOnly = true) public Mono<").append(dtoName).append("> findOne(Long id) {")
+                .append("return ").append(findById).append("id).map(mapper::toDto); }")
+                .append("\n@Transactional(readOnly = true) public Flux<").append(dtoName).append("> findAll(long limit) {")
+                .append("if (limit <= 0 || limit > ").append(getMaxStreamLimit(config)).append(") {")
+                .append("return Flux.error(() -> BusinessException.create(\"返回记录数需要在1到").append(getMaxStreamLimit(config))
+                .append("之间\")); }")
+                .append("return repository.").append(config.getWithDeleted() ? "findByDeletedFalse()" : "findAll()")
+                .append(".take(limit).map(mapper::toDto); }")
+                .append("\npublic Mono<Long> count() { return repository.")
+                .append(config.getWithDeleted() ? "countByDeletedFalse()" : "count()").append("; }");
+
+        return content.append("}").toString();
+    }
+
+    /**
+     * 流式查询最多返回的记录数，配置了findAll最多返回的记录数时与其一致
+     */
+    private static int getMaxStreamLimit(GeneratorConfig config) {
+        return 0 < config.getFindAllLimit() ? config.getFindAllLimit() : MAX_STREAM_LIMIT;
+    }
+
+    /**
+     * 获取控制器需要导入的类
+     *
+     * @param useAPI 是否增加Swagger的Api注解
+     */
+    public static List<String> getControllerImports(boolean useAPI) {
+        List<String> imports = new ArrayList<>(Arrays.asList("javax.annotation.Resource",
+                "org.springframework.http.MediaType", "org.springframework.web.bind.annotation.*",
+                "reactor.core.publisher.Flux", "reactor.core.publisher.Mono"));
+        if (useAPI) {
+            imports.add("io.swagger.annotations.Api");
+            imports.add("io.swagger.annotations.ApiOperation");
+        }
+
+        return imports;
+    }
+
+    /**
+     * 生成WebFlux控制器
+     * 访问路径与普通控制器一致；列表以NDJSON格式流式返回，客户端按需读取，服务端按读取速度从数据库中获取数据，
+     * 返回的记录数由limit参数指定，超过上限时报错
+     *
+     * @param model  实体信息
+     * @param config 生成配置
+     * @param useAPI 是否增加Swagger的Api注解
+     * @return 类内容
+     */
+    public static String renderController(EntityModel model, GeneratorConfig config, boolean useAPI) {
+        CodeComment comment = model.getComment();
+        String entityName = model.getEntityName();
+        String dtoName = entityName + "DTO";
+        String serviceFieldName = MyStringUtils.firstLetterToLower(entityName) + "Service";
+
+        StringBuilder content = new StringBuilder(comment.getContent("控制器"))
+                .append("\n@RequestMapping(\"")
+                .append(ControllerRenderer.getRequestPath(entityName, config.getControllerPrefix()))
+                .append("\")@RestController");
+        if (useAPI) {
+            content.append("@Api(tags = \"").append(comment.getText()).append("控制器\")");
+        }
+
+        content.append(" public class ").append(entityName).append("Controller {")
+                .append("@Resource private ").append(entityName).append("Service ").append(serviceFieldName).append("; ");
+
+        appendOperation(content, useAPI, "新增");
+        content.append("@PostMapping(\"/add\") public Mono<").append(dtoName).append("> add(@RequestBody ")
+                .append(entityName).append("AddDTO addDto) { return ").append(serviceFieldName).append(".add(addDto); }");
+
+        appendOperation(content, useAPI, "修改");
+        content.append("@PostMapping(\"/update\") public Mono<Void> update(@RequestBody ")
+                .append(entityName).append("UpdateDTO update) { return ").append(serviceFieldName).append(".update(update); }");
+
+        appendOperation(content, useAPI, "根据主键删除");
+        content.append("@DeleteMapping(\"/delete/{id}\") public Mono<Void> delete(@PathVariable(\"id\") Long id) { return ")
+                .append(serviceFieldName).append(".delete(id); }");
+
+        appendOperation(content, useAPI, "根据主键查询");
+        content.append("@GetMapping(\"/find/{id}\") public Mono<").append(dtoName)
+                .append("> findOne(@PathVariable(\"id\") Long id) { return ").append(serviceFieldName).append(".findOne(id); }");
+
+        appendOperation(content, useAPI, "流式查询");
+        content.append("@GetMapping(value = \"/stream\", produces = MediaType.APPLICATION_NDJSON_VALUE) public Flux<")
+                .append(dtoName).append("> stream(@RequestParam(value = \"limit\", defaultValue = \"")
+                .append(Math.min(DEFAULT_STREAM_LIMIT, getMaxStreamLimit(config))).append("\") long limit) { return ")
+                .append(serviceFieldName).append(".findAll(limit); }");
+
+        appendOperation(content, useAPI, "查询记录数");
+        content.append("@GetMapping(\"/count\") public Mono<Long> count() { return ")
+                .append(serviceFieldName).append(".count(); }");
+
+        return content.append("}").toString();
+    }
+
+    private static void appendOperation(StringBuilder content, boolean useAPI, String name) {
+        if (useAPI) {
+            content.append("@ApiOperation(\"").append(name).append("\") ");
+        }
+    }
+}
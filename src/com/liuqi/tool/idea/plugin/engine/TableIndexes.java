@@ -0,0 +1,82 @@
+package com.liuqi.tool.idea.plugin.engine;
+
+import java.util.*;
+
+/**
+ * 表索引建议
+ * 根据生成的查询语句中使用的条件及排序字段确定需要的索引：
+ * 查询及列表默认按deleted过滤并按create_time排序，两者都存在时建立组合索引，只有create_time时单独建立索引；
+ * id及ids条件使用主键，不需要额外的索引
+ *
+ * @author LiuQi 2020/6/16-10:20
+ * @version V1.0
+ **/
+public final class TableIndexes {
+    private TableIndexes() {
+    }
+
+    /**
+     * 获取建议的索引
+     *
+     * @param columns 属性名称与列名的对应关系
+     * @return 每个索引包含的列，按索引中的顺序排列
+     */
+    public static List<List<String>> suggest(Map<String, String> columns) {
+        String deleted = columns.get("deleted");
+        String createTime = columns.get("createTime");
+        if (null != deleted && null != createTime) {
+            return Collections.singletonList(Arrays.asList(deleted, createTime));
+        } else if (null != createTime) {
+            return Collections.singletonList(Collections.singletonList(createTime));
+        }
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * 获取索引名称，如t_user表中deleted、create_time的组合索引名称为idx_user_deleted_create_time
+     */
+    public static String getIndexName(String tableName, List<String> columns) {
+        String name = tableName.startsWith("t_") ? tableName.substring(2) : tableName;
+        return "idx_" + name + "_" + String.join("_", columns);
+    }
+
+    /**
+     * 生成Table注解中的indexes属性
+     *
+     * @param tableName 表名
+     * @param indexes   索引包含的列
+     * @return indexes属性文本，没有索引时返回空字符串
+     */
+    public static String toAnnotationAttribute(String tableName, List<List<String>> indexes) {
+        if (indexes.isEmpty()) {
+            return "";
+        }
+
+        StringJoiner joiner = new StringJoiner(", ", "indexes = {", "}");
+        for (List<String> columns : indexes) {
+            joiner.add("@javax.persistence.Index(name = \"" + getIndexName(tableName, columns) + "\", columnList = \""
+                    + String.join(", ", columns) + "\")");
+        }
+
+        return joiner.toString();
+    }
+
+    /**
+     * 生成创建索引的SQL
+     *
+     * @param tableName 表名
+     * @param indexes   索引包含的列
+     * @return 每个索引一行create index语句
+     */
+    public static String toSql(String tableName, List<List<String>> indexes) {
+        StringBuilder sql = new StringBuilder();
+        for (List<String> columns : indexes) {
+            sql.append("create index ").append(getIndexName(tableName, columns))
+                    .append(" on ").append(tableName)
+                    .append(" (").append(String.join(", ", columns)).append(");\n");
+        }
+
+        return sql.toString();
+    }
+}
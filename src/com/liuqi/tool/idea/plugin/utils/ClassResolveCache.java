@@ -0,0 +1,88 @@
+package com.liuqi.tool.idea.plugin.utils;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.util.PsiModificationTracker;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 类查找结果缓存
+ * 在一次代码生成过程中会多次按名称查找相同的类，每次查找都需要扫描索引，因此对查找结果进行缓存；
+ * 找到的类在失效前一直有效，未找到的结果在PSI发生修改后失效（生成过程中可能会创建出之前不存在的类）。
+ * 缓存只在一次生成过程中使用，不在多次生成之间共享。
+ *
+ * @author LiuQi 2020/6/3-9:40
+ * @version V1.0
+ **/
+public class ClassResolveCache {
+    private final PsiModificationTracker modificationTracker;
+
+    /**
+     * 已找到的类
+     */
+    private final Map<String, PsiClass> resolved = new ConcurrentHashMap<>(64);
+
+    /**
+     * 未找到的类名，值为查找时的PSI修改计数
+     */
+    private final Map<String, Long> unresolved = new ConcurrentHashMap<>(64);
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public ClassResolveCache(Project project) {
+        this.modificationTracker = PsiModificationTracker.SERVICE.getInstance(project);
+    }
+
+    /**
+     * 从缓存中获取类，缓存中没有或者已失效时使用resolver进行查找
+     *
+     * @param className 类名
+     * @param resolver  实际的查找方法
+     * @return 查找到的类
+     */
+    public Optional<PsiClass> get(String className, Function<String, Optional<PsiClass>> resolver) {
+        PsiClass psiClass = resolved.get(className);
+        if (null != psiClass && psiClass.isValid()) {
+            hitCount.incrementAndGet();
+            return Optional.of(psiClass);
+        }
+
+        long modificationCount = modificationTracker.getModificationCount();
+        Long unresolvedCount = unresolved.get(className);
+        if (null != unresolvedCount && unresolvedCount == modificationCount) {
+            hitCount.incrementAndGet();
+            return Optional.empty();
+        }
+
+        missCount.incrementAndGet();
+        Optional<PsiClass> result = resolver.apply(className);
+        if (result.isPresent()) {
+            resolved.put(className, result.get());
+            unresolved.remove(className);
+        } else {
+            resolved.remove(className);
+            unresolved.put(className, modificationCount);
+        }
+
+        return result;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ClassResolveCache{hits=" + hitCount.get() + ", misses=" + missCount.get() + "}";
+    }
+}
@@ -2,8 +2,6 @@ package com.liuqi.tool.idea.plugin.utils;
 
 import org.apache.commons.lang.StringUtils;
 
-import java.util.Arrays;
-import java.util.Objects;
 
 /**
  * 
@@ -17,11 +15,66 @@ public class MyStringUtils {
             return "";
         }
 
-        return str.replaceFirst(str.substring(0, 1), str.substring(0, 1).toLowerCase());
+        return Character.toLowerCase(str.charAt(0)) + str.substring(1);
     }
 
     public static String toUnderLineStr(String str) {
-        return firstLetterToLower(Arrays.stream(Objects.requireNonNull(StringUtils.splitByCharacterTypeCamelCase(str)))
-                .reduce((s1, s2) -> s1.toLowerCase().concat("_").concat(s2.toLowerCase())).orElse(""));
+        return firstLetterToLower(camelToUnderline(str));
+    }
+
+    /**
+     * 将驼峰形式的名称转换成以下划线连接的小写形式，如userName转换成user_name
+     * 拆分规则与StringUtils.splitByCharacterTypeCamelCase一致，只有一段时保持原样；
+     * 只遍历一次，不生成中间的字符串数组，生成映射文件时每个属性都会调用。
+     *
+     * @param str 驼峰形式的名称
+     * @return 转换后的名称
+     */
+    public static String camelToUnderline(String str) {
+        if (null == str || str.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder result = new StringBuilder(str.length() + 8);
+        int tokenStart = 0;
+        int tokenCount = 0;
+        int currentType = Character.getType(str.charAt(0));
+        for (int pos = 1; pos < str.length(); pos++) {
+            int type = Character.getType(str.charAt(pos));
+            if (type == currentType) {
+                continue;
+            }
+
+            if (Character.LOWERCASE_LETTER == type && Character.UPPERCASE_LETTER == currentType) {
+                // 大写字母后跟小写字母时，最后一个大写字母属于下一段，如ABCDef拆分成ABC与Def
+                int newTokenStart = pos - 1;
+                if (newTokenStart != tokenStart) {
+                    appendToken(result, str, tokenStart, newTokenStart, tokenCount++);
+                    tokenStart = newTokenStart;
+                }
+            } else {
+                appendToken(result, str, tokenStart, pos, tokenCount++);
+                tokenStart = pos;
+            }
+
+            currentType = type;
+        }
+
+        if (0 == tokenCount) {
+            return str;
+        }
+
+        appendToken(result, str, tokenStart, str.length(), tokenCount);
+        return result.toString();
+    }
+
+    private static void appendToken(StringBuilder result, String str, int start, int end, int index) {
+        if (0 != index) {
+            result.append('_');
+        }
+
+        for (int i = start; i < end; i++) {
+            result.append(Character.toLowerCase(str.charAt(i)));
+        }
     }
 }
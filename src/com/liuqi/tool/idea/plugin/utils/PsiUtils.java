@@ -11,7 +11,7 @@ import com.intellij.psi.codeStyle.JavaCodeStyleManager;
 import com.intellij.psi.impl.file.PsiDirectoryFactory;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.PsiShortNamesCache;
-import org.jetbrains.annotations.NotNull;
+import com.liuqi.tool.idea.plugin.engine.AccessorTemplates;
 import org.jetbrains.jps.model.java.JavaModuleSourceRootTypes;
 
 import java.io.IOException;
@@ -29,14 +29,40 @@ import java.util.function.Predicate;
 public class PsiUtils {
     private Project project;
     private Module module;
+    private ClassResolveCache classResolveCache;
 
-    private PsiUtils(Module module) {
+    private PsiUtils(Module module, ClassResolveCache classResolveCache) {
         this.module = module;
         this.project = module.getProject();
+        this.classResolveCache = classResolveCache;
     }
 
     public static PsiUtils of(Module module) {
-        return new PsiUtils(module);
+        return new PsiUtils(module, new ClassResolveCache(module.getProject()));
+    }
+
+    /**
+     * 使用指定的类查找缓存创建辅助类
+     * 同一次生成过程中的辅助类应使用同一个缓存
+     *
+     * @param module            模块
+     * @param classResolveCache 类查找缓存
+     * @return 辅助类
+     */
+    public static PsiUtils of(Module module, ClassResolveCache classResolveCache) {
+        return new PsiUtils(module, classResolveCache);
+    }
+
+    public Project getProject() {
+        return project;
+    }
+
+    public Module getModule() {
+        return module;
+    }
+
+    public ClassResolveCache getClassResolveCache() {
+        return classResolveCache;
     }
 
     public void importClass(PsiClass srcClass, PsiClass... toImportClasses) {
@@ -49,6 +75,25 @@ public class PsiUtils {
         }
     }
 
+    /**
+     * 获取模块的资源目录，只查找不创建，可以在读操作中使用
+     *
+     * @return 模块的第一个资源目录
+     */
+    public PsiDirectory getResourceDirectory() {
+        ModuleRootManager rootManager = ModuleRootManager.getInstance(module);
+        List<VirtualFile> sourceRoots = rootManager.getSourceRoots(JavaModuleSourceRootTypes.RESOURCES);
+        return PsiManager.getInstance(project).findDirectory(sourceRoots.get(0));
+    }
+
+    /**
+     * 获取模块的根目录，用于存放不需要打包的文件
+     */
+    public PsiDirectory getModuleDirectory() {
+        VirtualFile[] contentRoots = ModuleRootManager.getInstance(module).getContentRoots();
+        return PsiManager.getInstance(project).findDirectory(contentRoots[0]);
+    }
+
     public void createResourceFile(String dirName, String fileName, String content) {
         // 获取目录，在resources目录下，如果没有这个目录，那么创建一个目录
         ModuleRootManager rootManager = ModuleRootManager.getInstance(module);
@@ -151,12 +196,13 @@ public class PsiUtils {
 
     /**
      * 查找类
+     * 查找结果会被缓存，同一次生成过程中重复查找相同的类时不再扫描索引
      *
      * @param className 类名
      * @return 查找到的类
      */
     public Optional<PsiClass> findClass(String className) {
-        return findClass(className, psiClass -> true);
+        return classResolveCache.get(className, name -> findClass(name, psiClass -> true));
     }
 
     public Optional<PsiClass> findClass(String className, Predicate<PsiClass> predicate) {
@@ -203,71 +249,26 @@ public class PsiUtils {
 
     /**
      * 为字段增加Setter与Getter方法
+     * 已存在的方法不会重复生成，也不会再去解析其方法体
      */
     public void addGetterAndSetterMethods(PsiClass aClass) {
         PsiElementFactory elementFactory = PsiElementFactory.SERVICE.getInstance(project);
         for (PsiField field: aClass.getFields()) {
             String name = field.getName();
-            PsiType type = field.getType();
+            String type = field.getType().getCanonicalText();
+            String suffix = name.substring(0, 1).toUpperCase() + name.substring(1);
 
-            PsiMethod builderSetter = elementFactory.createMethodFromText(createBuilderSetter(aClass.getName(), name, type.getCanonicalText()), field);
-            PsiMethod normalSetter = elementFactory.createMethodFromText(createSetter(name, type.getCanonicalText()), field);
-            PsiMethod getter = elementFactory.createMethodFromText(createGetter(name, type.getCanonicalText()), field);
-
-            if (0 == aClass.findMethodsByName(builderSetter.getName()).length) {
-                aClass.add(builderSetter);
+            if (0 == aClass.findMethodsByName(name).length) {
+                aClass.add(elementFactory.createMethodFromText(AccessorTemplates.createBuilderSetter(aClass.getName(), name, type), field));
             }
 
-            if (0 == aClass.findMethodsByName(normalSetter.getName()).length) {
-                aClass.add(normalSetter);
+            if (0 == aClass.findMethodsByName("set" + suffix).length) {
+                aClass.add(elementFactory.createMethodFromText(AccessorTemplates.createSetter(name, type), field));
             }
 
-            if (0 == aClass.findMethodsByName(getter.getName()).length) {
-                aClass.add(getter);
+            if (0 == aClass.findMethodsByName("get" + suffix).length) {
+                aClass.add(elementFactory.createMethodFromText(AccessorTemplates.createGetter(name, type), field));
             }
         }
     }
-
-    private String createBuilderSetter(String className, String name, String type) {
-        return "public " +
-                className +
-                " " +
-                name +
-                "(" +
-                type +
-                " " +
-                name +
-                ") {" +
-                "this." +
-                name +
-                " = " +
-                name +
-                ";" +
-                "return this;}";
-    }
-
-    private String createSetter(@NotNull String name, String type) {
-        return "public void set" +
-                name.substring(0, 1).toUpperCase() + name.substring(1) +
-                "(" +
-                type +
-                " " +
-                name +
-                ") {" +
-                "this." +
-                name +
-                " = " +
-                name +
-                ";}";
-    }
-
-    private String createGetter(String name, String type) {
-        return "public " +
-                type +
-                " get" +
-                name.substring(0, 1).toUpperCase() + name.substring(1) +
-                "() {return this." +
-                name +
-                ";}";
-    }
 }